@@ -0,0 +1,53 @@
+package histogram.benchmarks;
+
+import java.util.Collection;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs BarAccessBenchmark under the GC profiler and exits with status 1 if any
+ * of the primitive bar accessors allocates per call.
+ *
+ *   java -cp benchmarks/target/benchmarks.jar histogram.benchmarks.BarAccessAllocationCheck
+ */
+public class BarAccessAllocationCheck {
+
+	// bytes per operation still counted as "no allocation" (profiler noise)
+	private static final double ALLOWED_BYTES_PER_OP = 1.0;
+
+	public static void main(String[] args) throws Exception {
+		Options options = new OptionsBuilder()
+				.include(BarAccessBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		Collection<RunResult> results = new Runner(options).run();
+
+		boolean allocationFree = true;
+		for(RunResult result : results) {
+			String label = result.getParams().getBenchmark() + " " + result.getParams().getParam("numberBars");
+			double bytesPerOp = normalizedAllocation(result);
+			System.out.println(label + ": " + bytesPerOp + " B/op");
+			if(bytesPerOp > ALLOWED_BYTES_PER_OP) {
+				allocationFree = false;
+			}
+		}
+		if(!allocationFree) {
+			System.err.println("Bar accessors allocate per call");
+			System.exit(1);
+		}
+	}
+
+	private static double normalizedAllocation(RunResult result) {
+		for(Result<?> secondary : result.getSecondaryResults().values()) {
+			if(secondary.getLabel().endsWith("gc.alloc.rate.norm")) {
+				return secondary.getScore();
+			}
+		}
+		throw new IllegalStateException("GC profiler did not report gc.alloc.rate.norm");
+	}
+}
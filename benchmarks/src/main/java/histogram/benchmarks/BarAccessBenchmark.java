@@ -0,0 +1,74 @@
+package histogram.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import histogram.Histogram;
+import histogram.IntBarConsumer;
+
+/**
+ * Reading bars the way hot readers (painting, summaries) do. The primitive
+ * accessors are expected to allocate nothing; BarAccessAllocationCheck runs
+ * this class under the GC profiler and fails if they do.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BarAccessBenchmark {
+
+	@Param({"10", "1000"})
+	public int numberBars;
+
+	private Histogram histogram;
+	private final SummingConsumer consumer = new SummingConsumer();
+
+	@Setup
+	public void setUp() {
+		histogram = new Histogram(BenchmarkData.uniform(100000, 100000), numberBars);
+	}
+
+	@Benchmark
+	public int getMaxBarCount() {
+		return histogram.getMaxBarCount();
+	}
+
+	@Benchmark
+	public long getBarCount() {
+		long sum = 0;
+		int numberBars = histogram.getNumberBars();
+		for(int i = 0; i < numberBars; i++) {
+			sum += histogram.getBarCount(i) + histogram.getBarRangeMin(i) + histogram.getBarRangeMax(i);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long forEachBar() {
+		consumer.sum = 0;
+		histogram.forEachBar(consumer);
+		return consumer.sum;
+	}
+
+	private static final class SummingConsumer implements IntBarConsumer {
+		long sum;
+
+		@Override
+		public void accept(int index, int rangeMin, int rangeMax, int count) {
+			sum += count;
+		}
+	}
+}
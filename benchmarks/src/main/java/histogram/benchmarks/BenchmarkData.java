@@ -0,0 +1,23 @@
+package histogram.benchmarks;
+
+import java.util.SplittableRandom;
+
+/**
+ * Input data shared by the benchmarks. Seeded so every fork sees the same values.
+ */
+final class BenchmarkData {
+
+	private static final long SEED = 0x5EEDL;
+
+	private BenchmarkData() {
+	}
+
+	static int[] uniform(int size, int maxValue) {
+		SplittableRandom random = new SplittableRandom(SEED);
+		int[] data = new int[size];
+		for(int i = 0; i < size; i++) {
+			data[i] = random.nextInt(maxValue);
+		}
+		return data;
+	}
+}
@@ -0,0 +1,69 @@
+package histogram.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import histogram.BinningKernel;
+
+/**
+ * The binning loop on its own: BinningKernel against the division loop
+ * Histogram used before it. A bar width of 1024 takes the shift path, the
+ * others the reciprocal multiply.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class BinningKernelBenchmark {
+
+	@Param({"10000000"})
+	public int size;
+
+	@Param({"1024", "1000", "100001"})
+	public int barRange;
+
+	@Param({"10", "1000"})
+	public int numberBars;
+
+	private int[] data;
+	private int[] counts;
+	private BinningKernel kernel;
+
+	@Setup
+	public void setUp() {
+		data = BenchmarkData.uniform(size, barRange * numberBars);
+		counts = new int[numberBars];
+		kernel = BinningKernel.forBarRange(barRange);
+	}
+
+	@Benchmark
+	public int[] divisionLoop() {
+		Arrays.fill(counts, 0);
+		for(int integer : data) {
+			int barLocation = (int) Math.floor(integer / barRange);
+			counts[barLocation]++;
+		}
+		return counts;
+	}
+
+	@Benchmark
+	public int[] kernel() {
+		Arrays.fill(counts, 0);
+		kernel.count(data, 0, data.length, counts);
+		return counts;
+	}
+}
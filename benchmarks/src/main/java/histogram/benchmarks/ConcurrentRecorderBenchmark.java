@@ -0,0 +1,71 @@
+package histogram.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import histogram.ConcurrentHistogramRecorder;
+import histogram.StreamingHistogram;
+
+/**
+ * Many threads recording into one histogram. Run with -t to set the thread
+ * count, or through ContentionScaling for a table over 1..cores threads.
+ * The locked variant guards a single StreamingHistogram with synchronized
+ * and is the baseline the striped recorder should beat as threads are added.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentRecorderBenchmark {
+
+	private static final int HIGHEST_VALUE = 1000000;
+
+	@State(Scope.Benchmark)
+	public static class Shared {
+		ConcurrentHistogramRecorder recorder;
+		StreamingHistogram locked;
+
+		@Setup
+		public void setUp() {
+			recorder = new ConcurrentHistogramRecorder(HIGHEST_VALUE, 10);
+			locked = new StreamingHistogram(10);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Values {
+		int seed = (int) System.nanoTime() | 1;
+
+		int next() {
+			// xorshift: cheap enough not to dominate the measurement
+			seed ^= seed << 13;
+			seed ^= seed >>> 17;
+			seed ^= seed << 5;
+			return (seed & Integer.MAX_VALUE) % HIGHEST_VALUE;
+		}
+	}
+
+	@Benchmark
+	public void striped(Shared shared, Values values) {
+		shared.recorder.record(values.next());
+	}
+
+	@Benchmark
+	public void locked(Shared shared, Values values) {
+		int value = values.next();
+		synchronized(shared.locked) {
+			shared.locked.record(value);
+		}
+	}
+}
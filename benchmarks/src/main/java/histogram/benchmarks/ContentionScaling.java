@@ -0,0 +1,47 @@
+package histogram.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs ConcurrentRecorderBenchmark with 1, 2, 4, ... threads up to the number
+ * of cores and prints total throughput per thread count.
+ *
+ *   java -cp benchmarks/target/benchmarks.jar histogram.benchmarks.ContentionScaling
+ */
+public class ContentionScaling {
+
+	public static void main(String[] args) throws Exception {
+		int cores = Runtime.getRuntime().availableProcessors();
+		List<Integer> threadCounts = new ArrayList<Integer>();
+		for(int threads = 1; threads < cores; threads *= 2) {
+			threadCounts.add(threads);
+		}
+		threadCounts.add(cores);
+
+		System.out.println("threads\tstriped ops/us\tlocked ops/us");
+		for(int threads : threadCounts) {
+			Options options = new OptionsBuilder()
+					.include(ConcurrentRecorderBenchmark.class.getSimpleName())
+					.threads(threads)
+					.build();
+			double striped = 0;
+			double locked = 0;
+			for(RunResult result : new Runner(options).run()) {
+				String benchmark = result.getParams().getBenchmark();
+				double score = result.getPrimaryResult().getScore();
+				if(benchmark.endsWith(".striped")) {
+					striped = score;
+				} else if(benchmark.endsWith(".locked")) {
+					locked = score;
+				}
+			}
+			System.out.println(threads + "\t" + striped + "\t" + locked);
+		}
+	}
+}
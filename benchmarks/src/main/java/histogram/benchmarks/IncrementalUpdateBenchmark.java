@@ -0,0 +1,72 @@
+package histogram.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import histogram.Histogram;
+
+/**
+ * One tick of a feed: a few thousand values added to and removed from a large
+ * sorted data set, against building the whole histogram again with setData.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class IncrementalUpdateBenchmark {
+
+	@Param({"10000000"})
+	public int size;
+
+	@Param({"2000"})
+	public int deltaSize;
+
+	@Param({"100"})
+	public int numberBars;
+
+	private int[] data;
+	private int[] delta;
+	private Histogram histogram;
+
+	@Setup
+	public void setUp() {
+		data = BenchmarkData.uniform(size, 1000000);
+		delta = BenchmarkData.uniform(deltaSize, 1000000);
+		histogram = new Histogram(data, numberBars);
+		// statistics sort the values, as in a report that shows percentiles
+		histogram.getStatistics();
+		histogram.getMaxBarCount();
+	}
+
+	// bars are counted on first read, so each change is followed by one, as a repaint would
+	@Benchmark
+	public int addThenRemove() {
+		histogram.addValues(delta);
+		histogram.getMaxBarCount();
+		histogram.removeValues(delta);
+		return histogram.getMaxBarCount();
+	}
+
+	@Benchmark
+	public int setDataTwice() {
+		histogram.setData(data);
+		histogram.getStatistics();
+		histogram.getMaxBarCount();
+		histogram.setData(data);
+		histogram.getStatistics();
+		return histogram.getMaxBarCount();
+	}
+}
@@ -0,0 +1,72 @@
+package histogram.benchmarks;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import histogram.Histogram;
+import histogram.HistogramIcon;
+
+/**
+ * HistogramIcon.paintIcon rendering into an offscreen image: repainting an
+ * unchanged histogram, and repainting after every change to it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true"})
+public class PaintBenchmark {
+
+	// same size as the icon in HistogramDisplayer
+	private static final int ICON_WIDTH = 400;
+	private static final int ICON_HEIGHT = 300;
+
+	@Param({"5", "50", "500", "100000"})
+	public int numberBars;
+
+	private Histogram histogram;
+	private HistogramIcon icon;
+	private BufferedImage image;
+	private Graphics2D graphics;
+
+	@Setup
+	public void setUp() {
+		histogram = new Histogram(BenchmarkData.uniform(10000, 1000), numberBars);
+		icon = new HistogramIcon(histogram, ICON_WIDTH, ICON_HEIGHT);
+		image = new BufferedImage(ICON_WIDTH, ICON_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+		graphics = image.createGraphics();
+	}
+
+	@TearDown
+	public void tearDown() {
+		graphics.dispose();
+	}
+
+	@Benchmark
+	public BufferedImage paintIcon() {
+		icon.paintIcon(null, graphics, 0, 0);
+		return image;
+	}
+
+	@Benchmark
+	public BufferedImage paintIconAfterChange() {
+		histogram.setNumberBars(numberBars);
+		icon.paintIcon(null, graphics, 0, 0);
+		return image;
+	}
+}
@@ -0,0 +1,71 @@
+package histogram.benchmarks;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import histogram.Histogram;
+
+/**
+ * setDataParallel on a dedicated pool of the given size, next to the
+ * sequential setData. Speedup is sequential time / parallel time for the same
+ * size; use -p size=500000000 with a larger -Xmx for the batch report case.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g"})
+public class ParallelSetDataBenchmark {
+
+	@Param({"10000000", "100000000"})
+	public int size;
+
+	@Param({"1", "2", "4", "8", "16"})
+	public int parallelism;
+
+	@Param({"10"})
+	public int numberBars;
+
+	private int[] data;
+	private Histogram histogram;
+	private ForkJoinPool pool;
+
+	@Setup
+	public void setUp() {
+		data = BenchmarkData.uniform(size, 1000000);
+		histogram = new Histogram(new int[0], numberBars);
+		pool = new ForkJoinPool(parallelism);
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public Histogram setDataParallel() {
+		histogram.setDataParallel(data, pool);
+		return histogram;
+	}
+
+	@Benchmark
+	public int setDataSequential() {
+		histogram.setData(data);
+		// setData leaves the bars to the first read, setDataParallel counts them
+		return histogram.getMaxBarCount();
+	}
+}
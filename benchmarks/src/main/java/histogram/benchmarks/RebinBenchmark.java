@@ -0,0 +1,65 @@
+package histogram.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import histogram.Histogram;
+
+/**
+ * Changing the bar count of a histogram that already holds its data, and
+ * replacing data and bar count together. Bars are counted on first read, so
+ * every benchmark reads them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class RebinBenchmark {
+
+	@Param({"1000000"})
+	public int size;
+
+	@Param({"1", "10", "100", "1000", "10000", "100000"})
+	public int numberBars;
+
+	private int[] data;
+	private Histogram histogram;
+
+	@Setup
+	public void setUp() {
+		data = BenchmarkData.uniform(size, 1000000);
+		histogram = new Histogram(data, 1);
+	}
+
+	@Benchmark
+	public int setNumberBars() {
+		histogram.setNumberBars(numberBars);
+		return histogram.getMaxBarCount();
+	}
+
+	@Benchmark
+	public int setDataThenNumberBars() {
+		histogram.setData(data);
+		histogram.setNumberBars(numberBars);
+		return histogram.getMaxBarCount();
+	}
+
+	@Benchmark
+	public int update() {
+		histogram.update(data, numberBars);
+		return histogram.getMaxBarCount();
+	}
+}
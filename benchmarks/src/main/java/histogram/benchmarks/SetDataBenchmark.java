@@ -0,0 +1,54 @@
+package histogram.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import histogram.Histogram;
+
+/**
+ * Histogram construction: copy, sort and bin a full data set through setData.
+ * Bars are counted on first read, so the benchmark reads them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g"})
+public class SetDataBenchmark {
+
+	@Param({"10", "1000", "100000", "10000000", "100000000"})
+	public int size;
+
+	@Param({"100", "1000000"})
+	public int maxValue;
+
+	@Param({"10"})
+	public int numberBars;
+
+	private int[] data;
+	private Histogram histogram;
+
+	@Setup
+	public void setUp() {
+		data = BenchmarkData.uniform(size, maxValue);
+		histogram = new Histogram(new int[0], numberBars);
+	}
+
+	@Benchmark
+	public int setData() {
+		histogram.setData(data);
+		return histogram.getMaxBarCount();
+	}
+}
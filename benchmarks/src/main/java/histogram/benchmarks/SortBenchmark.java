@@ -0,0 +1,63 @@
+package histogram.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import histogram.Histogram;
+
+/**
+ * setData followed by something that needs the values sorted (statistics),
+ * against setData plus the Arrays.parallelSort copy the histogram used to make.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class SortBenchmark {
+
+	@Param({"1000000", "10000000"})
+	public int size;
+
+	@Param({"100", "1000000", "2147483647"})
+	public int maxValue;
+
+	private int[] data;
+	private Histogram histogram;
+
+	@Setup
+	public void setUp() {
+		data = BenchmarkData.uniform(size, maxValue);
+		histogram = new Histogram(new int[0], 10);
+	}
+
+	@Benchmark
+	public int[] parallelSortCopy() {
+		histogram.setData(data);
+		// bars are counted on first read, as the other benchmark's statistics do not
+		histogram.getMaxBarCount();
+		int[] sorted = Arrays.copyOf(data, data.length);
+		Arrays.parallelSort(sorted);
+		return sorted;
+	}
+
+	@Benchmark
+	public Object setDataSorted() {
+		histogram.setData(data);
+		histogram.getMaxBarCount();
+		return histogram.getStatistics();
+	}
+}
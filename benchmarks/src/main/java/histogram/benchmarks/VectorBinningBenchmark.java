@@ -0,0 +1,74 @@
+package histogram.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import histogram.BinningKernel;
+
+/**
+ * BinningKernel with and without the Vector API. Both methods run the same
+ * code; the scalar fork lacks jdk.incubator.vector and so takes the fallback.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VectorBinningBenchmark {
+
+	@Param({"10000000"})
+	public int size;
+
+	@Param({"1024", "1000"})
+	public int barRange;
+
+	@Param({"10", "1000"})
+	public int numberBars;
+
+	private int[] data;
+	private int[] counts;
+	private BinningKernel kernel;
+
+	@Setup
+	public void setUp() {
+		data = BenchmarkData.uniform(size, barRange * numberBars);
+		counts = new int[numberBars];
+		kernel = BinningKernel.forBarRange(barRange);
+	}
+
+	private int[] count() {
+		Arrays.fill(counts, 0);
+		kernel.count(data, 0, data.length, counts);
+		return counts;
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+	public int[] scalar() {
+		if(BinningKernel.isVectorized()) {
+			throw new IllegalStateException("scalar fork is vectorized");
+		}
+		return count();
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "--add-modules=jdk.incubator.vector"})
+	public int[] vector() {
+		if(!BinningKernel.isVectorized()) {
+			throw new IllegalStateException("vector fork fell back to the scalar kernel");
+		}
+		return count();
+	}
+}
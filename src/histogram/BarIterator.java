@@ -0,0 +1,35 @@
+package histogram;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the bars of a histogram, creating each Bar only when it is
+ * reached, so the histograms do not have to keep Bar objects around.
+ */
+class BarIterator implements Iterator<Histogram.Bar> {
+	private final HistogramView view;
+	private final int numberBars;
+	private int index = 0;
+
+	BarIterator(HistogramView view) {
+		this.view = view;
+		this.numberBars = view.getNumberBars();
+	}
+
+	@Override
+	public boolean hasNext() {
+		return index < numberBars;
+	}
+
+	@Override
+	public Histogram.Bar next() {
+		if(!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Histogram.Bar bar = new Histogram.Bar(view.getBarRangeMin(index), view.getBarRangeMax(index),
+				view.getBarCount(index));
+		index++;
+		return bar;
+	}
+}
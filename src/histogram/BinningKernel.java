@@ -0,0 +1,134 @@
+package histogram;
+
+/**
+ * Counts values into equal width bars without an integer division per value.
+ *
+ * The strategy is picked once per bar width: a power of two width becomes a
+ * shift, any other width a multiply by a precomputed reciprocal followed by a
+ * shift (Granlund and Montgomery), which is exact for every non-negative int.
+ * The loops are unrolled four values at a time and have no branches besides
+ * the loop condition.
+ *
+ * When the JVM runs with --add-modules jdk.incubator.vector, large inputs go
+ * through VectorBinningKernel instead. Without the module, or with
+ * -Dhistogram.vector=false, the scalar loops are used.
+ */
+public final class BinningKernel {
+
+	private static final boolean VECTORIZED = isVectorApiAvailable();
+	// shorter inputs do not pay for setting up the lane-private count tables
+	private static final int MIN_VECTOR_LENGTH = 1 << 12;
+	// each lane gets a copy of the counts, which stops fitting in cache beyond this
+	private static final int MAX_VECTOR_BARS = 1 << 12;
+
+	private final int barRange;
+	private final int shift;
+	// 0 when barRange is a power of two
+	private final long multiplier;
+
+	private BinningKernel(int barRange, int shift, long multiplier) {
+		this.barRange = barRange;
+		this.shift = shift;
+		this.multiplier = multiplier;
+	}
+
+	/**
+	 * Kernel for bars of the given width. A negative width is read as unsigned,
+	 * so Integer.MIN_VALUE stands for 2^31.
+	 */
+	public static BinningKernel forBarRange(int barRange) {
+		if(barRange == 0) {
+			throw new IllegalArgumentException("barRange is 0");
+		}
+		if(Integer.bitCount(barRange) == 1) {
+			return new BinningKernel(barRange, Integer.numberOfTrailingZeros(barRange), 0);
+		}
+		// values have 31 bits; with 2^l >= barRange, ceil(2^(31 + l) / barRange)
+		// fits in 33 bits and value * multiplier stays below 2^63
+		int l = 32 - Integer.numberOfLeadingZeros(barRange - 1);
+		long divisor = Integer.toUnsignedLong(barRange);
+		long multiplier = ((1L << (31 + l)) + divisor - 1) / divisor;
+		return new BinningKernel(barRange, 31 + l, multiplier);
+	}
+
+	public int getBarRange() {
+		return barRange;
+	}
+
+	public int barIndex(int value) {
+		return divide(value, shift, multiplier);
+	}
+
+	static int divide(int value, int shift, long multiplier) {
+		if(multiplier == 0) {
+			return value >>> shift;
+		}
+		return (int) ((value * multiplier) >>> shift);
+	}
+
+	private static boolean isVectorApiAvailable() {
+		if(!Boolean.parseBoolean(System.getProperty("histogram.vector", "true"))) {
+			return false;
+		}
+		// incubator modules are only resolved when asked for on the command line
+		return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+	}
+
+	/**
+	 * Whether large inputs are counted with the Vector API.
+	 */
+	public static boolean isVectorized() {
+		return VECTORIZED;
+	}
+
+	/**
+	 * Adds one to the bar of every value from index from to index to - 1.
+	 * Values must be non-negative and fall inside counts.
+	 */
+	public void count(int[] values, int from, int to, int[] counts) {
+		if(VECTORIZED && to - from >= MIN_VECTOR_LENGTH && counts.length <= MAX_VECTOR_BARS) {
+			VectorBinningKernel.count(values, from, to, shift, multiplier, counts);
+		} else if(multiplier == 0) {
+			countShifted(values, from, to, counts);
+		} else {
+			countMultiplied(values, from, to, counts);
+		}
+	}
+
+	private void countShifted(int[] values, int from, int to, int[] counts) {
+		int shift = this.shift;
+		int i = from;
+		for(; i + 3 < to; i += 4) {
+			int bar0 = values[i] >>> shift;
+			int bar1 = values[i + 1] >>> shift;
+			int bar2 = values[i + 2] >>> shift;
+			int bar3 = values[i + 3] >>> shift;
+			counts[bar0]++;
+			counts[bar1]++;
+			counts[bar2]++;
+			counts[bar3]++;
+		}
+		for(; i < to; i++) {
+			counts[values[i] >>> shift]++;
+		}
+	}
+
+	private void countMultiplied(int[] values, int from, int to, int[] counts) {
+		int shift = this.shift;
+		long multiplier = this.multiplier;
+		int i = from;
+		for(; i + 3 < to; i += 4) {
+			int bar0 = (int) ((values[i] * multiplier) >>> shift);
+			int bar1 = (int) ((values[i + 1] * multiplier) >>> shift);
+			int bar2 = (int) ((values[i + 2] * multiplier) >>> shift);
+			int bar3 = (int) ((values[i + 3] * multiplier) >>> shift);
+			counts[bar0]++;
+			counts[bar1]++;
+			counts[bar2]++;
+			counts[bar3]++;
+		}
+		for(; i < to; i++) {
+			counts[(int) ((values[i] * multiplier) >>> shift)]++;
+		}
+	}
+}
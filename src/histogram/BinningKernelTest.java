@@ -0,0 +1,78 @@
+package histogram;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit Test class for the BinningKernel class.
+ */
+public class BinningKernelTest extends TestCase {
+
+	private void assertMatchesDivision(int barRange, int value) {
+		BinningKernel kernel = BinningKernel.forBarRange(barRange);
+		assertEquals("value " + value + " / " + barRange, value / barRange, kernel.barIndex(value));
+	}
+
+	public void testMatchesDivision() {
+		int[] values = new int[] {0, 1, 2, 3, 6, 7, 1000, 65535, 65536, Integer.MAX_VALUE - 1, Integer.MAX_VALUE};
+		int[] barRanges = new int[] {1, 2, 3, 5, 7, 10, 641, 1 << 16, (1 << 16) + 1, 1000000007,
+				(1 << 30) + 1, Integer.MAX_VALUE - 1, Integer.MAX_VALUE};
+		for(int barRange : barRanges) {
+			for(int value : values) {
+				assertMatchesDivision(barRange, value);
+				for(int delta = -2; delta <= 2; delta++) {
+					long multiple = (long) (value / barRange) * barRange + delta;
+					if(multiple >= 0 && multiple <= Integer.MAX_VALUE) {
+						assertMatchesDivision(barRange, (int) multiple);
+					}
+				}
+			}
+		}
+		Random random = new Random(19);
+		for(int i = 0; i < 200000; i++) {
+			assertMatchesDivision(random.nextInt(Integer.MAX_VALUE) + 1, random.nextInt(Integer.MAX_VALUE));
+		}
+		// (Integer.MAX_VALUE / 1) + 1 wraps around to 2^31
+		assertEquals(0, BinningKernel.forBarRange(Integer.MIN_VALUE).barIndex(Integer.MAX_VALUE));
+	}
+
+	public void testCount() {
+		Random random = new Random(5);
+		int[] values = new int[1003];
+		for(int i = 0; i < values.length; i++) {
+			values[i] = random.nextInt(5000);
+		}
+		for(int barRange : new int[] {1, 7, 64, 100, 4999}) {
+			int[] expected = new int[5000 / barRange + 1];
+			for(int i = 3; i < values.length; i++) {
+				expected[values[i] / barRange]++;
+			}
+			int[] counts = new int[expected.length];
+			BinningKernel.forBarRange(barRange).count(values, 3, values.length, counts);
+			for(int i = 0; i < counts.length; i++) {
+				assertEquals(expected[i], counts[i]);
+			}
+		}
+	}
+
+	// long enough for the vector kernel when the JVM has jdk.incubator.vector
+	public void testCountLargeInput() {
+		Random random = new Random(20);
+		int[] values = new int[100003];
+		for(int i = 0; i < values.length; i++) {
+			values[i] = random.nextInt(Integer.MAX_VALUE);
+		}
+		for(int barRange : new int[] {1 << 20, 1 << 30, 524309, 1000000007}) {
+			int[] expected = new int[Integer.MAX_VALUE / barRange + 1];
+			for(int i = 1; i < values.length; i++) {
+				expected[values[i] / barRange]++;
+			}
+			int[] counts = new int[expected.length];
+			BinningKernel.forBarRange(barRange).count(values, 1, values.length, counts);
+			for(int i = 0; i < counts.length; i++) {
+				assertEquals(expected[i], counts[i]);
+			}
+		}
+	}
+}
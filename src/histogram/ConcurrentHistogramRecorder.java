@@ -0,0 +1,173 @@
+package histogram;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records values from many threads into one histogram without locking.
+ *
+ * Counts are spread over several stripes, each an AtomicLongArray of base
+ * buckets, and a recording thread only touches the stripe picked from its
+ * thread id. Stripes are padded on both ends so neighbouring stripes never
+ * share a cache line. snapshot() adds the stripes up into a StreamingHistogram
+ * whose bars always add up to its total count; values recorded while the
+ * snapshot is taken may or may not be part of it. getIntervalSnapshot() also
+ * empties the stripes, so a long running recorder reports what was recorded
+ * since the previous interval, and every value lands in exactly one interval.
+ *
+ * A StreamingHistogram counts in ints, so a snapshot whose counts add up to
+ * more than Integer.MAX_VALUE is saturated: counts are taken from the lowest
+ * bucket up until the total reaches Integer.MAX_VALUE.
+ */
+public class ConcurrentHistogramRecorder implements ValueRecorder {
+
+	// 16 longs = 128 bytes, enough to keep two stripes off the same (or adjacent) cache line
+	private static final int PADDING = 16;
+
+	private final AtomicLongArray[] stripes;
+	private final int stripeMask;
+	private final int resolution;
+	private final int shift;
+	private final int highestTrackableValue;
+	private final AtomicInteger maxValue = new AtomicInteger(-1);
+	private volatile int numberBars;
+
+	public ConcurrentHistogramRecorder(int highestTrackableValue, int numberOfBars) {
+		this(highestTrackableValue, numberOfBars, StreamingHistogram.DEFAULT_RESOLUTION,
+				Runtime.getRuntime().availableProcessors());
+	}
+
+	public ConcurrentHistogramRecorder(int highestTrackableValue, int numberOfBars,
+			int resolution, int numberStripes) {
+		if(highestTrackableValue < 0) {
+			throw new IllegalArgumentException("highestTrackableValue is less than 0");
+		}
+		if(resolution < 2 || Integer.bitCount(resolution) != 1) {
+			throw new IllegalArgumentException("resolution must be a power of two greater than 1");
+		}
+		if(numberStripes < 1) {
+			throw new IllegalArgumentException("numberStripes is less than 1");
+		}
+		setNumberBars(numberOfBars);
+		this.highestTrackableValue = highestTrackableValue;
+		this.resolution = resolution;
+		int bucketShift = 0;
+		while((highestTrackableValue >>> bucketShift) >= resolution) {
+			bucketShift++;
+		}
+		this.shift = bucketShift;
+
+		int stripeCount = Integer.highestOneBit(numberStripes);
+		if(stripeCount < numberStripes) {
+			stripeCount <<= 1;
+		}
+		this.stripeMask = stripeCount - 1;
+		this.stripes = new AtomicLongArray[stripeCount];
+		for(int i = 0; i < stripeCount; i++) {
+			stripes[i] = new AtomicLongArray(resolution + 2 * PADDING);
+		}
+	}
+
+	public void record(int value) {
+		record(value, 1);
+	}
+
+	/**
+	 * Records the value count times.
+	 */
+	public void record(int value, long count) {
+		if(value < 0 || value > highestTrackableValue) {
+			throw new IllegalArgumentException("Invalid data: " + value);
+		}
+		if(count < 0) {
+			throw new IllegalArgumentException("count is less than 0");
+		}
+		// the max has to be visible before the count, see snapshot()
+		int currentMax = maxValue.get();
+		while(value > currentMax && !maxValue.compareAndSet(currentMax, value)) {
+			currentMax = maxValue.get();
+		}
+		stripes[stripeIndex()].addAndGet(PADDING + (value >>> shift), count);
+	}
+
+	public void recordAll(int[] values) {
+		if(values == null) {
+			throw new IllegalArgumentException("values is null");
+		}
+		for(int value : values) {
+			record(value);
+		}
+	}
+
+	private int stripeIndex() {
+		long id = Thread.currentThread().getId();
+		return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & stripeMask;
+	}
+
+	/**
+	 * Adds up all stripes into a new histogram. Never blocks writers.
+	 */
+	public StreamingHistogram snapshot() {
+		long[] sums = new long[resolution];
+		for(AtomicLongArray stripe : stripes) {
+			for(int i = 0; i < resolution; i++) {
+				sums[i] += stripe.get(PADDING + i);
+			}
+		}
+		// read after the counts: every count seen above has its max already published
+		int max = maxValue.get();
+		return toHistogram(sums, max);
+	}
+
+	/**
+	 * Adds up all stripes into a new histogram and empties them, so the next
+	 * interval starts from zero. Never blocks writers: each count is taken
+	 * and replaced by zero in one atomic step.
+	 */
+	public StreamingHistogram getIntervalSnapshot() {
+		long[] sums = new long[resolution];
+		for(AtomicLongArray stripe : stripes) {
+			for(int i = 0; i < resolution; i++) {
+				sums[i] += stripe.getAndSet(PADDING + i, 0);
+			}
+		}
+		int max = maxValue.get();
+		int highestBucket = resolution - 1;
+		while(highestBucket >= 0 && sums[highestBucket] == 0) {
+			highestBucket--;
+		}
+		// the running max may be from an earlier interval; this interval's values end in its highest bucket
+		int intervalMax = highestBucket < 0 ? -1
+				: (int) Math.min(max, ((long) (highestBucket + 1) << shift) - 1);
+		return toHistogram(sums, intervalMax);
+	}
+
+	private StreamingHistogram toHistogram(long[] sums, int max) {
+		int[] counts = new int[resolution];
+		long remaining = Integer.MAX_VALUE;
+		for(int i = 0; i < resolution; i++) {
+			counts[i] = (int) Math.min(sums[i], remaining);
+			remaining -= counts[i];
+		}
+		return new StreamingHistogram(counts, shift, max, numberBars);
+	}
+
+	public void setNumberBars(int numberOfBars) {
+		if(numberOfBars < 0) {
+			throw new IllegalArgumentException("Number of Bars is less than 0");
+		}
+		this.numberBars = numberOfBars;
+	}
+
+	public int getNumberBars() {
+		return numberBars;
+	}
+
+	public int getHighestTrackableValue() {
+		return highestTrackableValue;
+	}
+
+	public int getNumberStripes() {
+		return stripes.length;
+	}
+}
@@ -0,0 +1,104 @@
+package histogram;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit Test class for the ConcurrentHistogramRecorder class.
+ */
+public class ConcurrentHistogramRecorderTest extends TestCase {
+
+	public void testManyWriters() throws InterruptedException {
+		final ConcurrentHistogramRecorder recorder = new ConcurrentHistogramRecorder(9999, 10, 1024, 4);
+		final int valuesPerThread = 20000;
+		Thread[] threads = new Thread[8];
+		for(int t = 0; t < threads.length; t++) {
+			final int offset = t;
+			threads[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for(int i = 0; i < valuesPerThread; i++) {
+						recorder.record((i * 7 + offset) % 10000);
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for(Thread thread : threads) {
+			thread.join();
+		}
+
+		StreamingHistogram snapshot = recorder.snapshot();
+		assertEquals(threads.length * valuesPerThread, snapshot.getTotalCount());
+		assertEquals(9999, snapshot.getMaxValue());
+		int barTotal = 0;
+		for(Histogram.Bar bar : snapshot) {
+			barTotal += bar.getCount();
+		}
+		assertEquals(snapshot.getTotalCount(), barTotal);
+	}
+
+	public void testSnapshotMatchesHistogram() {
+		int[] data = new int[] {0, 1, 2, 3, 4, 5, 5, 5, 900};
+		ConcurrentHistogramRecorder recorder = new ConcurrentHistogramRecorder(1000, 6, 1024, 2);
+		recorder.recordAll(data);
+		int index = 0;
+		int[] expected = new int[] {8, 0, 0, 0, 0, 1};
+		for(Histogram.Bar bar : recorder.snapshot()) {
+			assertEquals(expected[index++], bar.getCount());
+		}
+		assertEquals(6, index);
+	}
+
+	public void testIntervalSnapshot() {
+		ConcurrentHistogramRecorder recorder = new ConcurrentHistogramRecorder(9999, 10, 1024, 2);
+		recorder.recordAll(new int[] {1, 5000, 9999});
+		StreamingHistogram first = recorder.getIntervalSnapshot();
+		assertEquals(3, first.getTotalCount());
+		assertEquals(9999, first.getMaxValue());
+
+		StreamingHistogram idle = recorder.getIntervalSnapshot();
+		assertEquals(0, idle.getTotalCount());
+		assertEquals(-1, idle.getMaxValue());
+
+		recorder.record(20);
+		StreamingHistogram second = recorder.getIntervalSnapshot();
+		assertEquals(1, second.getTotalCount());
+		// bounded by the bucket holding 20, not the max of an earlier interval
+		assertTrue(second.getMaxValue() >= 20 && second.getMaxValue() < 20 + second.getBucketWidth());
+		assertEquals(0, recorder.snapshot().getTotalCount());
+	}
+
+	public void testCountsPastIntRange() {
+		ConcurrentHistogramRecorder recorder = new ConcurrentHistogramRecorder(9999, 10, 1024, 2);
+		recorder.record(7, Integer.MAX_VALUE);
+		recorder.record(7, 10);
+		recorder.record(9000, 5);
+		StreamingHistogram saturated = recorder.snapshot();
+		assertEquals(Integer.MAX_VALUE, saturated.getTotalCount());
+		assertEquals(Integer.MAX_VALUE, saturated.getMaxBarCount());
+
+		// the interval takes the counts with it, and the recorder is usable again
+		assertEquals(Integer.MAX_VALUE, recorder.getIntervalSnapshot().getTotalCount());
+		recorder.record(9000, 2);
+		StreamingHistogram next = recorder.getIntervalSnapshot();
+		assertEquals(2, next.getTotalCount());
+		assertEquals(2, next.countBetween(0, 9999));
+		assertEquals(0, next.countBetween(0, 8000));
+	}
+
+	public void testFailRecord() {
+		ConcurrentHistogramRecorder recorder = new ConcurrentHistogramRecorder(10, 2);
+		try {
+			recorder.record(11);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+		try {
+			recorder.record(-1);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package histogram;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact encoding of a bucket count array, shared by the histograms that
+ * serialize their buckets.
+ *
+ * Counts are written as ZigZag LEB128 varints. A run of empty buckets is
+ * written as a single negative number (minus the run length), and empty
+ * buckets after the last non-empty one are not written at all, so sparse
+ * arrays cost little more than their non-empty buckets.
+ */
+final class CountsCodec {
+
+	// varint bytes for an int, plus the length prefix
+	private static final int MAX_VARINT_BYTES = 5;
+
+	private CountsCodec() {
+	}
+
+	static int maxEncodedSize(int length) {
+		return MAX_VARINT_BYTES * (length + 1);
+	}
+
+	static void encodeInto(ByteBuffer buffer, int[] counts) {
+		int usedLength = counts.length;
+		while(usedLength > 0 && counts[usedLength - 1] == 0) {
+			usedLength--;
+		}
+		putVarint(buffer, usedLength);
+		int i = 0;
+		while(i < usedLength) {
+			if(counts[i] == 0) {
+				int run = 0;
+				while(counts[i] == 0) {
+					run++;
+					i++;
+				}
+				putZigZag(buffer, -run);
+			} else {
+				putZigZag(buffer, counts[i]);
+				i++;
+			}
+		}
+	}
+
+	/**
+	 * Reads encoded counts into the given array, which must be zeroed and long enough.
+	 */
+	static void decodeFrom(ByteBuffer buffer, int[] counts) {
+		int usedLength = getVarint(buffer);
+		if(usedLength < 0 || usedLength > counts.length) {
+			throw new IllegalArgumentException("Encoded counts do not fit the histogram");
+		}
+		int i = 0;
+		while(i < usedLength) {
+			int token = getZigZag(buffer);
+			if(token < 0) {
+				if(token < i - usedLength) {
+					throw new IllegalArgumentException("Encoded counts are corrupt");
+				}
+				i -= token;
+			} else {
+				counts[i++] = token;
+			}
+		}
+	}
+
+	static void putVarint(ByteBuffer buffer, int value) {
+		while((value & ~0x7F) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	static int getVarint(ByteBuffer buffer) {
+		int value = 0;
+		for(int shift = 0; shift < 35; shift += 7) {
+			byte b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			if(b >= 0) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Malformed varint");
+	}
+
+	static void putZigZag(ByteBuffer buffer, int value) {
+		putVarint(buffer, (value << 1) ^ (value >> 31));
+	}
+
+	static int getZigZag(ByteBuffer buffer) {
+		int value = getVarint(buffer);
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
@@ -0,0 +1,47 @@
+package histogram;
+
+/**
+ * Binary indexed tree over an array of counts: adding to one count and
+ * summing a prefix of them both take O(log n), so prefix sums stay cheap
+ * while counts keep changing.
+ */
+final class FenwickTree {
+
+	// tree[i - 1] holds the sum of the counts from i - (i & -i) to i - 1
+	private final int[] tree;
+
+	FenwickTree(int size) {
+		tree = new int[size];
+	}
+
+	/**
+	 * Rebuilds the tree from counts, which has the tree's size, in O(n).
+	 */
+	void reset(int[] counts) {
+		System.arraycopy(counts, 0, tree, 0, tree.length);
+		// each node hands its sum on to its parent once
+		for(int i = 1; i <= tree.length; i++) {
+			int parent = i + (i & -i);
+			if(parent <= tree.length) {
+				tree[parent - 1] += tree[i - 1];
+			}
+		}
+	}
+
+	void add(int index, int delta) {
+		for(int i = index + 1; i <= tree.length; i += i & -i) {
+			tree[i - 1] += delta;
+		}
+	}
+
+	/**
+	 * Sum of the counts at indices below end.
+	 */
+	int prefixSum(int end) {
+		int sum = 0;
+		for(int i = end; i > 0; i -= i & -i) {
+			sum += tree[i - 1];
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,41 @@
+package histogram;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit Test class for the FenwickTree class.
+ */
+public class FenwickTreeTest extends TestCase {
+
+	private void assertPrefixSums(int[] counts, FenwickTree tree) {
+		int sum = 0;
+		for(int end = 0; end <= counts.length; end++) {
+			assertEquals(sum, tree.prefixSum(end));
+			if(end < counts.length) {
+				sum += counts[end];
+			}
+		}
+	}
+
+	public void testMatchesRunningSums() {
+		Random random = new Random(25);
+		for(int size : new int[] {1, 2, 7, 16, 100}) {
+			int[] counts = new int[size];
+			for(int i = 0; i < size; i++) {
+				counts[i] = random.nextInt(50);
+			}
+			FenwickTree tree = new FenwickTree(size);
+			tree.reset(counts);
+			assertPrefixSums(counts, tree);
+			for(int i = 0; i < 200; i++) {
+				int index = random.nextInt(size);
+				int delta = random.nextInt(11) - 5;
+				counts[index] += delta;
+				tree.add(index, delta);
+			}
+			assertPrefixSums(counts, tree);
+		}
+	}
+}
@@ -2,131 +2,340 @@ package histogram;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Sets up histogram for a list of numbers
  * 
+ * All state lives in an immutable HistogramSnapshot. Writers build the next
+ * snapshot on the side and publish it through one volatile field, so readers
+ * never lock and never see half of a change. Code reading several bars on
+ * another thread than the writer should read them from getSnapshot().
+ * 
+ * Changes only record the new values and bar count; the bars are counted when
+ * something first reads them, so changing data and bar count together costs
+ * one pass.
+ * 
  * @author Alan
  *
  */
-public class Histogram implements Iterable<Histogram.Bar>{
+public class Histogram implements HistogramView {
 
-	private int[] integerList;
-	private int numberBars = 1;
-	private Histogram.Bar[] barList;
+	private volatile HistogramSnapshot snapshot;
 	
 	public Histogram(int[] integerList, int numberOfBars) {
-		setData(integerList);
-		setNumberBars(numberOfBars);
+		replaceData(integerList, numberOfBars);
+	}
+	
+	public synchronized void setData(int[] integerList) {
+		replaceData(integerList, getCurrentNumberBars());
+	}
+	
+	/**
+	 * Replaces the data and the number of bars in one change, so readers never
+	 * see the new data with the old bar count, and the bars are counted once.
+	 */
+	public synchronized void update(int[] integerList, int numberOfBars) {
+		replaceData(integerList, numberOfBars);
+	}
+	
+	private void replaceData(int[] integerList, int numberOfBars) {
+		if(integerList == null) {
+			throw new IllegalArgumentException("integerList is null");
+		}
+		if(numberOfBars < 0) {
+			throw new IllegalArgumentException("Number of Bars is less than 0");
+		}
+		int[] tempIntegerList = Arrays.copyOf(integerList, integerList.length);
+		int maxDataValue = checkData(tempIntegerList);
+		// values are non-negative, so few distinct values means a small maximum
+		if(tempIntegerList.length > 0 && IntSorter.isCountingSortCheaper(tempIntegerList.length, 0, maxDataValue)) {
+			// the counting pass sorts the copy in place and gives the bar counts on the way
+			int[] valueCounts = IntSorter.countValues(tempIntegerList, 0, maxDataValue);
+			IntSorter.fillSorted(valueCounts, 0, tempIntegerList);
+			int barRange = HistogramSnapshot.computeIntervalLength(tempIntegerList.length, maxDataValue, numberOfBars);
+			int[] integerCountList = new int[numberOfBars];
+			addIntegerCountFromValueCounts(valueCounts, integerCountList, barRange);
+			publish(tempIntegerList, tempIntegerList, maxDataValue, numberOfBars, integerCountList, null);
+			return;
+		}
+		publish(tempIntegerList, null, maxDataValue, numberOfBars, null, null);
+	}
+	
+	public void setDataParallel(int[] integerList) {
+		setDataParallel(integerList, ForkJoinPool.commonPool());
 	}
 	
-	public void setData(int[] integerList) {
+	/**
+	 * Same as setData, but checks and bins the values with fork-join tasks
+	 * running in the given pool.
+	 */
+	public synchronized void setDataParallel(int[] integerList, ForkJoinPool pool) {
 		if(integerList == null) {
 			throw new IllegalArgumentException("integerList is null");
 		}
-		checkData(integerList);
+		if(pool == null) {
+			throw new IllegalArgumentException("pool is null");
+		}
 		int[] tempIntegerList = Arrays.copyOf(integerList, integerList.length);
-		Arrays.sort(tempIntegerList);
-		this.integerList = tempIntegerList;
-		createBarList();
+		int maxDataValue = ParallelBinning.checkData(tempIntegerList, pool);
+		int numberBars = getCurrentNumberBars();
+		// counted now, since the caller chose to spend the pool on it
+		int barRange = HistogramSnapshot.computeIntervalLength(tempIntegerList.length, maxDataValue, numberBars);
+		int[] integerCountList = ParallelBinning.countBars(tempIntegerList, barRange, numberBars, pool);
+		publish(tempIntegerList, null, maxDataValue, numberBars, integerCountList, null);
+	}
+	
+	/**
+	 * Adds the values of another histogram to this one.
+	 */
+	public synchronized void merge(Histogram other) {
+		if(other == null) {
+			throw new IllegalArgumentException("other is null");
+		}
+		HistogramSnapshot current = snapshot;
+		HistogramSnapshot otherSnapshot = other.snapshot;
+		int[] integerList = current.getValues();
+		int[] otherIntegerList = otherSnapshot.getValues();
+		int[] mergedIntegerList = Arrays.copyOf(integerList, integerList.length + otherIntegerList.length);
+		System.arraycopy(otherIntegerList, 0, mergedIntegerList, integerList.length, otherIntegerList.length);
+		int maxDataValue = Math.max(current.getMaxDataValue(), otherSnapshot.getMaxDataValue());
+		publish(mergedIntegerList, null, maxDataValue, current.getNumberBars(), null, null);
+	}
+	
+	/**
+	 * Adds values to the data. The sorted values are merged with the sorted
+	 * delta instead of being sorted again, and only the bars of the new values
+	 * are counted, unless the largest value grows enough to change the bar
+	 * ranges.
+	 */
+	public synchronized void addValues(int[] values) {
+		if(values == null) {
+			throw new IllegalArgumentException("values is null");
+		}
+		HistogramSnapshot current = snapshot;
+		int[] delta = Arrays.copyOf(values, values.length);
+		int maxDataValue = Math.max(current.getMaxDataValue(), checkData(delta));
+		Arrays.sort(delta);
+		int[] sortedIntegerList = current.getSortedValuesIfKnown();
+		int[] integerList;
+		if(sortedIntegerList != null) {
+			sortedIntegerList = mergeSorted(sortedIntegerList, delta);
+			integerList = sortedIntegerList;
+		} else {
+			// nothing has needed them sorted yet, so they stay unsorted
+			int[] unsorted = current.getValues();
+			integerList = Arrays.copyOf(unsorted, unsorted.length + delta.length);
+			System.arraycopy(delta, 0, integerList, unsorted.length, delta.length);
+		}
+		int numberBars = current.getNumberBars();
+		int barRange = HistogramSnapshot.computeIntervalLength(integerList.length, maxDataValue, numberBars);
+		int[] integerCountList = current.copyBarCountsIfCounted();
+		if(integerCountList != null && barRange == current.getBarRange()) {
+			BinningKernel.forBarRange(barRange).count(delta, 0, delta.length, integerCountList);
+		} else {
+			integerCountList = null;
+		}
+		publish(integerList, sortedIntegerList, maxDataValue, numberBars, integerCountList, null);
 	}
 	
-	private void checkData(int[] integerList) {
+	/**
+	 * Removes one occurrence of each value from the data, by a linear pass over
+	 * the sorted values and the sorted delta. Only the bars of the removed
+	 * values are counted again, unless removing the largest values changes the
+	 * bar ranges.
+	 */
+	public synchronized void removeValues(int[] values) {
+		if(values == null) {
+			throw new IllegalArgumentException("values is null");
+		}
+		int[] delta = Arrays.copyOf(values, values.length);
+		Arrays.sort(delta);
+		HistogramSnapshot current = snapshot;
+		int[] sortedIntegerList = removeSorted(current.getSortedValues(), delta);
+		int maxDataValue = sortedIntegerList.length == 0 ? -1 : sortedIntegerList[sortedIntegerList.length - 1];
+		int numberBars = current.getNumberBars();
+		int barRange = HistogramSnapshot.computeIntervalLength(sortedIntegerList.length, maxDataValue, numberBars);
+		int[] integerCountList = current.copyBarCountsIfCounted();
+		if(integerCountList != null && barRange == current.getBarRange()) {
+			BinningKernel kernel = BinningKernel.forBarRange(barRange);
+			for(int value : delta) {
+				integerCountList[kernel.barIndex(value)]--;
+			}
+		} else {
+			integerCountList = null;
+		}
+		publish(sortedIntegerList, sortedIntegerList, maxDataValue, numberBars, integerCountList, null);
+	}
+	
+	// both arrays sorted; so is the result
+	private static int[] mergeSorted(int[] sorted, int[] sortedDelta) {
+		int[] merged = new int[sorted.length + sortedDelta.length];
+		int i = 0;
+		int j = 0;
+		int k = 0;
+		while(i < sorted.length && j < sortedDelta.length) {
+			merged[k++] = sorted[i] <= sortedDelta[j] ? sorted[i++] : sortedDelta[j++];
+		}
+		System.arraycopy(sorted, i, merged, k, sorted.length - i);
+		System.arraycopy(sortedDelta, j, merged, k, sortedDelta.length - j);
+		return merged;
+	}
+	
+	// both arrays sorted; every value of the delta has to be there to be removed
+	private static int[] removeSorted(int[] sorted, int[] sortedDelta) {
+		if(sortedDelta.length > sorted.length) {
+			throw new IllegalArgumentException("More values to remove than in the histogram");
+		}
+		int[] remaining = new int[sorted.length - sortedDelta.length];
+		int k = 0;
+		int j = 0;
+		for(int i = 0; i < sorted.length; i++) {
+			if(j < sortedDelta.length && sorted[i] == sortedDelta[j]) {
+				j++;
+			} else if(k == remaining.length || (j < sortedDelta.length && sorted[i] > sortedDelta[j])) {
+				// passed the place where sortedDelta[j] would be
+				throw new IllegalArgumentException("Value not in the histogram: " + sortedDelta[j]);
+			} else {
+				remaining[k++] = sorted[i];
+			}
+		}
+		return remaining;
+	}
+	
+	// returns the largest value, or -1 for an empty list
+	private int checkData(int[] integerList) {
+		int max = -1;
 		for(int integer : integerList) {
 			if(integer < 0) {
 				throw new IllegalArgumentException("Invalid data in integerList");
 			}
+			if(integer > max) {
+				max = integer;
+			}
 		}
+		return max;
 	}
 
-	public void setNumberBars(int numberOfBars) {
+	public synchronized void setNumberBars(int numberOfBars) {
 		if(numberOfBars < 0) {
 			throw new IllegalArgumentException("Number of Bars is less than 0");
 		}
-		this.numberBars = numberOfBars;
-		createBarList();
+		HistogramSnapshot current = snapshot;
+		// same data, so the sorted values and statistics carry over, and sorting
+		// once pays off over repeated rebinning by binary search
+		publish(current.getValues(), current.getSortedValuesIfKnown(), current.getMaxDataValue(), numberOfBars,
+				null, true, current.getStatisticsIfKnown());
 	}
 	
-	private void createBarList() {
-		barList = new Bar[numberBars];
-		int barRange = computeIntervalLength();
-		int[] integerCountList = new int[barList.length];
-		addIntegerCountToList(integerCountList, barRange);
-		addToBarList(integerCountList, barRange);
+	// one bar until setNumberBars is called
+	private int getCurrentNumberBars() {
+		return snapshot == null ? 1 : snapshot.getNumberBars();
 	}
-
-	// assumes integer list is sorted
-	private int computeIntervalLength() {
-		boolean emptyList = integerList.length == 0;
-		if(emptyList) {
-			return 1;
-		}
-		int maxDataValue = integerList[integerList.length-1];
-		assert numberBars > 0;
-		// add 1 to include starting 0
-		int barRange = (maxDataValue / numberBars) + 1;
-		return barRange;
+	
+	// integerCountList is null when the bars are to be counted on first read
+	private void publish(int[] integerList, int[] sortedIntegerList, int maxDataValue, int numberBars,
+			int[] integerCountList, HistogramStatistics statistics) {
+		publish(integerList, sortedIntegerList, maxDataValue, numberBars, integerCountList, false, statistics);
 	}
-
-	private void addIntegerCountToList(int[] integerCountList, int barRange) {
-		for(int integer : integerList) {
-			// needs to adjust integer according to how many parts each bar is divided into
-			int barLocation = (int) Math.floor(integer / barRange);
-			assert barLocation < integerCountList.length;
-			integerCountList[barLocation]++;
-		}
+	
+	private void publish(int[] integerList, int[] sortedIntegerList, int maxDataValue, int numberBars,
+			int[] integerCountList, boolean sortForBars, HistogramStatistics statistics) {
+		long version = snapshot == null ? 1 : snapshot.getVersion() + 1;
+		snapshot = new HistogramSnapshot(integerList, sortedIntegerList, maxDataValue, numberBars,
+				integerCountList, sortForBars, version, statistics);
 	}
 
-	private void addToBarList(int[] integerCountList, int barRange) {
-		int rangeMin = 0;
-		int rangeMax = barRange - 1;
-		for(int i = 0; i < numberBars; i++) {
-			int count = integerCountList[i];
-			barList[i] = new Bar(rangeMin, rangeMax, count);
-			rangeMin += barRange;
-			rangeMax += barRange;
+	// valueCounts[v] is how often v occurs, so this costs one step per possible value
+	private static void addIntegerCountFromValueCounts(int[] valueCounts, int[] integerCountList, int barRange) {
+		BinningKernel kernel = BinningKernel.forBarRange(barRange);
+		for(int value = 0; value < valueCounts.length; value++) {
+			integerCountList[kernel.barIndex(value)] += valueCounts[value];
 		}
 	}
 	
+	/**
+	 * The current state; it stays the same however the histogram changes afterwards.
+	 */
+	@Override
+	public HistogramSnapshot getSnapshot() {
+		return snapshot;
+	}
+	
 	public int getNumberBars() {
-		return numberBars;
+		return snapshot.getNumberBars();
 	}
 	
+	// Bar objects are only created as the iterator reaches them
 	public Iterator<Histogram.Bar> iterator() {
-		ArrayList<Bar> tempBarList = new ArrayList<Bar>();
-		for(Histogram.Bar bar : barList) {
-			tempBarList.add(bar);
-		}
-		return Collections.unmodifiableList(tempBarList).iterator();
+		return snapshot.iterator();
+	}
+	
+	public int getBarCount(int index) {
+		return snapshot.getBarCount(index);
+	}
+	
+	public int getBarRangeMin(int index) {
+		return snapshot.getBarRangeMin(index);
 	}
 	
+	public int getBarRangeMax(int index) {
+		return snapshot.getBarRangeMax(index);
+	}
+	
+	public void forEachBar(IntBarConsumer consumer) {
+		snapshot.forEachBar(consumer);
+	}
+	
+	// computed once per snapshot, when the bars are first read
 	public int getMaxBarCount() {
-		Iterator<Histogram.Bar> iterator = iterator();
-		Bar bar;
-		int nextCount;
-		int maxCount = Integer.MIN_VALUE;
-		while(iterator.hasNext()) {
-			bar = iterator.next();
-			nextCount = bar.getCount();
-			if(nextCount > maxCount) {
-				maxCount = nextCount;
-			}
-		}
-		return maxCount;
+		return snapshot.getMaxBarCount();
+	}
+	
+	public long getVersion() {
+		return snapshot.getVersion();
+	}
+	
+	/**
+	 * Exact statistics of the data, computed once and kept until the data changes.
+	 */
+	public HistogramStatistics getStatistics() {
+		return snapshot.getStatistics();
+	}
+	
+	/**
+	 * Number of values less than or equal to value. The first query after a
+	 * change sorts the data; later ones are a binary search.
+	 */
+	public int rank(int value) {
+		return snapshot.rank(value);
+	}
+	
+	/**
+	 * Number of values from lo to hi, both included.
+	 */
+	public int countBetween(int lo, int hi) {
+		return snapshot.countBetween(lo, hi);
+	}
+	
+	/**
+	 * Fraction of the values less than or equal to value.
+	 */
+	public double cdf(int value) {
+		return snapshot.cdf(value);
 	}
 	
 	public Iterator<Integer> getIntegerListIterator() {
 		List<Integer> list = new ArrayList<Integer>();
-		for(int integer : integerList) {
+		for(int integer : snapshot.getSortedValues()) {
 			list.add(integer);
 		}
 		return list.iterator();
 	}
 	
-	public class Bar {
+	public static class Bar {
 		private final int rangeMin;
 		private final int rangeMax;
 		private final int count;
@@ -0,0 +1,34 @@
+package histogram;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Prints the histogram of integers read from a file or stdin, without a UI.
+ *
+ * Usage: HistogramCli numberBars [file]
+ */
+public class HistogramCli {
+
+	public static void main(String[] args) throws IOException {
+		if(args.length < 1 || args.length > 2) {
+			System.err.println("Usage: HistogramCli numberBars [file]");
+			System.exit(2);
+		}
+		StreamingHistogram histogram = new StreamingHistogram(Integer.parseInt(args[0]));
+		InputStream in = args.length == 2 ? new FileInputStream(args[1]) : System.in;
+		try {
+			new IntTextParser().parse(new BufferedInputStream(in), histogram);
+		} catch(MalformedDataException e) {
+			System.err.println("Data format error: " + e.getMessage());
+			System.exit(1);
+		} finally {
+			in.close();
+		}
+		for(Histogram.Bar bar : histogram) {
+			System.out.println(bar);
+		}
+	}
+}
@@ -5,20 +5,26 @@ import java.awt.Component;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Shape;
+import java.awt.Transparency;
 import java.awt.geom.Line2D;
-import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
-import java.util.Iterator;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
 
 import javax.swing.Icon;
 
-import histogram.Histogram.Bar;
-
-
+/**
+ * Icon drawing a histogram's bars with their counts and intervals.
+ *
+ * The drawing is rendered into an offscreen image that is kept until the
+ * histogram's version changes, so repaints that do not follow a data or bar
+ * count change (resizing, overlapping windows) only copy the image. With more
+ * bars than fit the width, bars are merged into pixel columns, and labels that
+ * would overlap are left out.
+ */
 public class HistogramIcon implements Icon {
 
-	private final Histogram histogram;
+	private final HistogramView histogram;
 	private final int barSpacing = 5;
 	private final int margin = 20;
 	private final int textBarCountOffset = 8;
@@ -33,15 +39,30 @@ public class HistogramIcon implements Icon {
 	private int distanceToHorizontalAxis;
 	private int distanceToVerticalAxis;
 	
-	public HistogramIcon(Histogram histogram, int width, int height) {
+	// reused between renders
+	private final Font barCountFont = new Font("Calibri", Font.BOLD, barCountTextSize);
+	private final Font intervalFont = new Font("Calibri", Font.BOLD, intervalTextHeight);
+	private final Rectangle2D.Double rectangle = new Rectangle2D.Double();
+	private final Line2D.Double line = new Line2D.Double();
+	
+	private final int labelGap = 4;
+	private int lastCountLabelEnd;
+	private final int[] lastIntervalLabelEnd = new int[2];
+	
+	private BufferedImage cachedImage;
+	private long cachedVersion;
+	// what the current paint reads from, so it sees one consistent state
+	private HistogramView view;
+	
+	public HistogramIcon(HistogramView histogram, int width, int height) {
 		this.histogram = histogram;
 		this.width = width;
 		this.height = height;
 	}
 	
 	private double getBarWidth() {
-		assert(histogram.getNumberBars() > 0);
-		return getTotalGraphWithSpacing() / histogram.getNumberBars();
+		assert(view.getNumberBars() > 0);
+		return getTotalGraphWithSpacing() / view.getNumberBars();
 	}
 	
 	private double getTotalGraphWithSpacing() {
@@ -50,7 +71,7 @@ public class HistogramIcon implements Icon {
 	}
 	
 	private double getTotalBarSpacing() {
-		return barSpacing * histogram.getNumberBars();
+		return barSpacing * view.getNumberBars();
 	}
 	
 	private int getHorizontalAxisLength() {
@@ -59,14 +80,10 @@ public class HistogramIcon implements Icon {
 		return width - totalHorizontalMargin;
 	}
 	
-	private double getScaledBarHeight(int barHeight) {
-		return barHeight * getMultiplier();
-	}
-	
 	private double getMultiplier() {
 		// determines how much height needs to be resized by
-		assert(histogram.getMaxBarCount() > 0);
-		return getVerticalAxisLength() / histogram.getMaxBarCount();
+		assert(view.getMaxBarCount() > 0);
+		return (double) getVerticalAxisLength() / view.getMaxBarCount();
 	}
 	
 	private int getVerticalAxisLength() {
@@ -94,15 +111,42 @@ public class HistogramIcon implements Icon {
 	@Override
 	public void paintIcon(Component c, Graphics g, int width, int height) {
 		Graphics2D g2d = (Graphics2D) g;
-		g2d.setColor(Color.RED);
-		drawBackground(g2d);
-		g2d.setColor(Color.BLACK);
-		drawAxis(g2d);
-		drawGraph(g2d);
+		view = histogram.getSnapshot();
+		long version = view.getVersion();
+		if(cachedImage == null) {
+			cachedImage = g2d.getDeviceConfiguration().createCompatibleImage(
+					this.width, this.height, Transparency.OPAQUE);
+			render(cachedImage);
+		} else if(cachedVersion != version) {
+			render(cachedImage);
+		}
+		cachedVersion = version;
+		view = null;
+		g2d.drawImage(cachedImage, 0, 0, null);
+	}
+
+	private void render(BufferedImage image) {
+		Graphics2D g2d = image.createGraphics();
+		try {
+			clear(g2d);
+			g2d.setColor(Color.RED);
+			drawBackground(g2d);
+			g2d.setColor(Color.BLACK);
+			drawAxis(g2d);
+			drawGraph(g2d);
+		} finally {
+			g2d.dispose();
+		}
+	}
+
+	// the image is opaque (much cheaper to copy), so every pixel has to be painted
+	private void clear(Graphics2D g2d) {
+		g2d.setColor(Color.WHITE);
+		g2d.fillRect(0, 0, width, height);
 	}
 
 	private void drawBackground(Graphics2D g2d) {
-		Shape rectangle = new Rectangle2D.Double(0, 0, width-1, height-1);
+		rectangle.setRect(0, 0, width-1, height-1);
 
 		g2d.setColor(Color.WHITE);
 		g2d.fill(rectangle);
@@ -126,70 +170,132 @@ public class HistogramIcon implements Icon {
 	}
 
 	private void drawHorizontalAxis(Graphics2D g2d) {
-		Point2D p1 = new Point2D.Double(margin, distanceToHorizontalAxis);
-		Point2D p2 = new Point2D.Double(margin + horizontalAxisLength, distanceToHorizontalAxis);
-		Line2D horizontalLine = new Line2D.Double(p1, p2);
+		line.setLine(margin, distanceToHorizontalAxis, margin + horizontalAxisLength, distanceToHorizontalAxis);
 		
-		g2d.draw(horizontalLine);
+		g2d.draw(line);
 	}
 
 	private void drawVerticalAxis(Graphics2D g2d) {
-		Point2D p1 = new Point2D.Double(margin, margin);
-		Point2D p2 = new Point2D.Double(margin, distanceToHorizontalAxis);
-		Line2D verticalLine = new Line2D.Double(p1, p2);
+		line.setLine(margin, margin, margin, distanceToHorizontalAxis);
 		
-		g2d.draw(verticalLine);
+		g2d.draw(line);
 	}
 	
 	private void drawGraph(Graphics2D g2d) {
-		Iterator<Histogram.Bar> iterator = histogram.iterator();
+		// nothing to scale the bars to, e.g. a windowed histogram with an idle window
+		if(view.getMaxBarCount() <= 0) {
+			return;
+		}
+		resetLabels();
+		if(isLevelOfDetailNeeded()) {
+			drawColumns(g2d);
+		} else {
+			drawBars(g2d);
+		}
+	}
+
+	// every bar needs at least one pixel next to its spacing to be drawn on its own
+	private boolean isLevelOfDetailNeeded() {
+		return (long) view.getNumberBars() * (barSpacing + 1) > horizontalAxisLength;
+	}
+
+	private void drawBars(Graphics2D g2d) {
+		int numberBars = view.getNumberBars();
 		double barWidth = getBarWidth();
+		double multiplier = getMultiplier();
 		double xLocation = distanceToVerticalAxis;
-		int intervalCount = 0;
 		double yLocation;
 		double barHeight;
-		Bar bar;
-		while(iterator.hasNext()) {
-			bar = iterator.next();
+		int count;
+		for(int intervalCount = 0; intervalCount < numberBars; intervalCount++) {
+			count = view.getBarCount(intervalCount);
 			xLocation += barSpacing;
-			barHeight = getScaledBarHeight(bar.getCount());
+			barHeight = count * multiplier;
 			yLocation = distanceToHorizontalAxis - barHeight;
 			drawBar(g2d, xLocation, yLocation, barWidth, barHeight);
-			drawCount(g2d, xLocation, yLocation, bar.getCount());
-			drawInterval(g2d, xLocation, distanceToHorizontalAxis, intervalCount, bar.getRangeMin());
-			intervalCount++;
+			drawCount(g2d, xLocation, yLocation, barWidth, count);
+			drawInterval(g2d, xLocation, distanceToHorizontalAxis, barWidth, intervalCount,
+					view.getBarRangeMin(intervalCount));
 			xLocation += barWidth;
 		}
 	}
 
+	/**
+	 * Level of detail for more bars than pixels: neighbouring bars are merged
+	 * into pixel columns without spacing. A column is as tall as its highest
+	 * bar, so single spikes stay visible, and is labelled with the sum of its
+	 * bars. Drawing is proportional to the axis width, not the number of bars.
+	 */
+	private void drawColumns(Graphics2D g2d) {
+		int numberBars = view.getNumberBars();
+		int columnCount = Math.min(numberBars, horizontalAxisLength);
+		double columnWidth = (double) horizontalAxisLength / columnCount;
+		double multiplier = getMultiplier();
+		int firstBar = 0;
+		for(int column = 0; column < columnCount; column++) {
+			int endBar = (int) ((long) (column + 1) * numberBars / columnCount);
+			int max = 0;
+			long sum = 0;
+			for(int bar = firstBar; bar < endBar; bar++) {
+				int count = view.getBarCount(bar);
+				max = Math.max(max, count);
+				sum += count;
+			}
+			double xLocation = distanceToVerticalAxis + column * columnWidth;
+			double barHeight = max * multiplier;
+			double yLocation = distanceToHorizontalAxis - barHeight;
+			drawBar(g2d, xLocation, yLocation, columnWidth, barHeight);
+			drawCount(g2d, xLocation, yLocation, columnWidth, sum);
+			drawInterval(g2d, xLocation, distanceToHorizontalAxis, columnWidth, column,
+					view.getBarRangeMin(firstBar));
+			firstBar = endBar;
+		}
+	}
+
+	// labels are skipped when they would overlap the previous label in their row
+	private void resetLabels() {
+		lastCountLabelEnd = Integer.MIN_VALUE;
+		Arrays.fill(lastIntervalLabelEnd, Integer.MIN_VALUE);
+	}
+
 	private void drawCount(Graphics2D g2d, double xLocation, double yLocation,
-			int barCount) {
-		int xLocationCentreOfBar = (int) (xLocation + ( (getBarWidth() - horizontalTextOffsetError) / 2));
+			double barWidth, long barCount) {
+		int xLocationCentreOfBar = (int) (xLocation + ( (barWidth - horizontalTextOffsetError) / 2));
 		int offsetFromTopOfBar = (int) (yLocation - textBarCountOffset);
-		String count = Integer.toString(barCount);
+		if(xLocationCentreOfBar < lastCountLabelEnd + labelGap) {
+			return;
+		}
+		String count = Long.toString(barCount);
+		lastCountLabelEnd = xLocationCentreOfBar + g2d.getFontMetrics(barCountFont).stringWidth(count);
 		g2d.setColor(Color.BLACK);
-		g2d.setFont(new Font("Calibri", Font.BOLD, barCountTextSize));
+		g2d.setFont(barCountFont);
 		g2d.drawString(count, xLocationCentreOfBar, offsetFromTopOfBar);
 	}
 
 	private void drawBar(Graphics2D g2d, double xLocation, double yLocation, double barWidth, double barHeight) {
-		Shape rectangle = new Rectangle2D.Double(xLocation, yLocation, barWidth, barHeight);
+		rectangle.setRect(xLocation, yLocation, barWidth, barHeight);
 		
 		g2d.setColor(Color.BLUE);
 		g2d.fill(rectangle);
 	}
 
-	private void drawInterval(Graphics2D g2d, double xLocation, int yLocation, int intervalCount, int rangeMin) {
-		int xLocationCentreOfBar = (int) (xLocation + ( (getBarWidth() - horizontalTextOffsetError) / 2));
+	private void drawInterval(Graphics2D g2d, double xLocation, int yLocation, double barWidth,
+			int intervalCount, int rangeMin) {
+		int xLocationCentreOfBar = (int) (xLocation + ( (barWidth - horizontalTextOffsetError) / 2));
 		int offsetFromBottomOfBar = (int) (yLocation + textIntervalOffset);
 		int textSize = intervalTextHeight;
+		int row = intervalCount % 2;
+		if(xLocationCentreOfBar < lastIntervalLabelEnd[row] + labelGap) {
+			return;
+		}
 		String textIntervalValue = Integer.toString(rangeMin);
-		boolean isOddIntervalCount = intervalCount % 2 != 0;
+		lastIntervalLabelEnd[row] = xLocationCentreOfBar + g2d.getFontMetrics(intervalFont).stringWidth(textIntervalValue);
+		boolean isOddIntervalCount = row != 0;
 		if(isOddIntervalCount) {
 			offsetFromBottomOfBar += textSize;
 		}
 		
-		g2d.setFont(new Font("Calibri", Font.BOLD, textSize));
+		g2d.setFont(intervalFont);
 		g2d.setColor(Color.BLACK);
 		g2d.drawString(textIntervalValue, xLocationCentreOfBar, offsetFromBottomOfBar);
 	}
@@ -0,0 +1,93 @@
+package histogram;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit Test class for the HistogramIcon class. Paints into offscreen images,
+ * so it also runs headless.
+ */
+public class HistogramIconTest extends TestCase {
+
+	private static final int WIDTH = 400;
+	private static final int HEIGHT = 300;
+
+	private int[] paint(HistogramIcon icon) {
+		BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g2d = image.createGraphics();
+		icon.paintIcon(null, g2d, 0, 0);
+		g2d.dispose();
+		return image.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH);
+	}
+
+	public void testRepaintFollowsHistogramChanges() {
+		Histogram histogram = new Histogram(new int[] {5, 6, 7, 8, 14}, 5);
+		HistogramIcon icon = new HistogramIcon(histogram, WIDTH, HEIGHT);
+		int[] first = paint(icon);
+		assertTrue(Arrays.equals(first, paint(icon)));
+
+		histogram.setNumberBars(3);
+		int[] rebinned = paint(icon);
+		assertFalse(Arrays.equals(first, rebinned));
+		assertTrue(Arrays.equals(rebinned, paint(new HistogramIcon(histogram, WIDTH, HEIGHT))));
+
+		histogram.setData(new int[] {1, 1, 1, 2, 9});
+		assertFalse(Arrays.equals(rebinned, paint(icon)));
+	}
+
+	private int tallestBlueColumn(int[] pixels) {
+		int tallestColumn = 0;
+		for(int x = 0; x < WIDTH; x++) {
+			int blue = 0;
+			for(int y = 0; y < HEIGHT; y++) {
+				if(pixels[y * WIDTH + x] == Color.BLUE.getRGB()) {
+					blue++;
+				}
+			}
+			tallestColumn = Math.max(tallestColumn, blue);
+		}
+		return tallestColumn;
+	}
+
+	public void testMoreBarsThanPixels() {
+		int[] data = new int[1000];
+		for(int i = 0; i < data.length; i++) {
+			data[i] = i * 100;
+		}
+		// one spike, a single bar out of 100000; the larger count is more than the axis is tall
+		for(int spikeCount : new int[] {50, 300}) {
+			int[] spike = new int[spikeCount];
+			Arrays.fill(spike, 55555);
+			Histogram histogram = new Histogram(data, 100000);
+			histogram.merge(new Histogram(spike, 1));
+			int[] pixels = paint(new HistogramIcon(histogram, WIDTH, HEIGHT));
+			assertTrue(tallestBlueColumn(pixels) > HEIGHT / 2);
+		}
+	}
+
+	public void testEmptyWindow() {
+		final long[] now = new long[1];
+		WindowedHistogram windowed = new WindowedHistogram(10, 99, 1, TimeUnit.SECONDS, 2, new LongSupplier() {
+			@Override
+			public long getAsLong() {
+				return now[0];
+			}
+		});
+		HistogramIcon icon = new HistogramIcon(windowed, WIDTH, HEIGHT);
+		int[] empty = paint(icon);
+		assertEquals(0, tallestBlueColumn(empty));
+
+		windowed.record(50);
+		assertTrue(tallestBlueColumn(paint(icon)) > HEIGHT / 2);
+
+		// the value falls out of the window again
+		now[0] = TimeUnit.SECONDS.toNanos(5);
+		assertTrue(Arrays.equals(empty, paint(icon)));
+	}
+}
@@ -0,0 +1,263 @@
+package histogram;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * Immutable state of a Histogram at one version: its values, bars and max bar
+ * count. Histogram publishes a new snapshot for every change, so a reader on
+ * another thread that holds a snapshot always sees bars that belong together,
+ * without taking a lock.
+ *
+ * The bars, the sorted values and the statistics are worked out on first
+ * use. All are derived from data that never changes, so two readers racing to
+ * compute them compute the same thing.
+ */
+public final class HistogramSnapshot implements HistogramView {
+
+	private final int[] values;
+	private final int maxDataValue;
+	private final int numberBars;
+	private final int barRange;
+	private final boolean sortForBars;
+	private final long version;
+	private volatile int[] sortedValues;
+	private volatile Bars bars;
+	private volatile HistogramStatistics statistics;
+
+	/**
+	 * barCounts is null when the bars are to be counted on first read. With
+	 * sortForBars set, counting them sorts the values first when that is
+	 * cheaper than a scan, which pays off when the same data is rebinned again.
+	 */
+	HistogramSnapshot(int[] values, int[] sortedValues, int maxDataValue, int numberBars, int[] barCounts,
+			boolean sortForBars, long version, HistogramStatistics statistics) {
+		this.values = values;
+		this.sortedValues = sortedValues;
+		this.maxDataValue = maxDataValue;
+		this.numberBars = numberBars;
+		this.barRange = computeIntervalLength(values.length, maxDataValue, numberBars);
+		this.sortForBars = sortForBars;
+		this.bars = barCounts == null ? null : new Bars(barCounts);
+		this.version = version;
+		this.statistics = statistics;
+	}
+
+	// the counts and their maximum, published together
+	private static final class Bars {
+		final int[] counts;
+		final int maxCount;
+
+		Bars(int[] counts) {
+			this.counts = counts;
+			this.maxCount = findMaxCount(counts);
+		}
+	}
+
+	private Bars bars() {
+		Bars built = bars;
+		if(built == null) {
+			built = new Bars(countBars());
+			bars = built;
+		}
+		return built;
+	}
+
+	private int[] countBars() {
+		int[] barCounts = new int[numberBars];
+		int[] sorted = sortedValues;
+		boolean boundarySearchCheaper = isBoundarySearchCheaper(numberBars, values.length);
+		if(sorted == null && sortForBars && boundarySearchCheaper) {
+			sorted = getSortedValues();
+		}
+		if(sorted != null && boundarySearchCheaper) {
+			addIntegerCountFromBoundaries(sorted, barCounts, barRange);
+		} else {
+			BinningKernel.forBarRange(barRange).count(values, 0, values.length, barCounts);
+		}
+		return barCounts;
+	}
+
+	// the values in no particular order; never modified
+	int[] getValues() {
+		return values;
+	}
+
+	// the sorted values if something already needed them, otherwise null
+	int[] getSortedValuesIfKnown() {
+		return sortedValues;
+	}
+
+	// sorts a copy, so readers of the unsorted values are not disturbed
+	int[] getSortedValues() {
+		int[] sorted = sortedValues;
+		if(sorted == null) {
+			sorted = IntSorter.sortedCopy(values, maxDataValue);
+			sortedValues = sorted;
+		}
+		return sorted;
+	}
+
+	int getMaxDataValue() {
+		return maxDataValue;
+	}
+
+	int getBarRange() {
+		return barRange;
+	}
+
+	// a copy of the bar counts if something already counted them, otherwise null
+	int[] copyBarCountsIfCounted() {
+		Bars built = bars;
+		return built == null ? null : Arrays.copyOf(built.counts, built.counts.length);
+	}
+
+	HistogramStatistics getStatisticsIfKnown() {
+		return statistics;
+	}
+
+	/**
+	 * Exact statistics of the values, computed on first use.
+	 */
+	public HistogramStatistics getStatistics() {
+		HistogramStatistics stats = statistics;
+		if(stats == null) {
+			stats = HistogramStatistics.fromSortedValues(getSortedValues(), version);
+			statistics = stats;
+		}
+		return stats;
+	}
+
+	/**
+	 * Number of values less than or equal to value, by binary search on the
+	 * sorted values.
+	 */
+	public int rank(int value) {
+		return lowerBound(getSortedValues(), 0, (long) value + 1);
+	}
+
+	/**
+	 * Number of values from lo to hi, both included.
+	 */
+	public int countBetween(int lo, int hi) {
+		if(lo > hi) {
+			throw new IllegalArgumentException("lo is greater than hi");
+		}
+		int[] sorted = getSortedValues();
+		int start = lowerBound(sorted, 0, lo);
+		return lowerBound(sorted, start, (long) hi + 1) - start;
+	}
+
+	/**
+	 * Fraction of the values less than or equal to value.
+	 */
+	public double cdf(int value) {
+		if(values.length == 0) {
+			throw new IllegalStateException("No values recorded");
+		}
+		return (double) rank(value) / values.length;
+	}
+
+	public int getValueCount() {
+		return values.length;
+	}
+
+	public int getNumberBars() {
+		return numberBars;
+	}
+
+	public int getBarCount(int index) {
+		return bars().counts[index];
+	}
+
+	public int getBarRangeMin(int index) {
+		Objects.checkIndex(index, numberBars);
+		return index * barRange;
+	}
+
+	public int getBarRangeMax(int index) {
+		return getBarRangeMin(index) + barRange - 1;
+	}
+
+	public int getMaxBarCount() {
+		return bars().maxCount;
+	}
+
+	public void forEachBar(IntBarConsumer consumer) {
+		int[] barCounts = bars().counts;
+		int rangeMin = 0;
+		for(int i = 0; i < numberBars; i++) {
+			consumer.accept(i, rangeMin, rangeMin + barRange - 1, barCounts[i]);
+			rangeMin += barRange;
+		}
+	}
+
+	public Iterator<Histogram.Bar> iterator() {
+		return new BarIterator(this);
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	@Override
+	public HistogramSnapshot getSnapshot() {
+		return this;
+	}
+
+	static int computeIntervalLength(int length, int maxDataValue, int numberBars) {
+		boolean emptyList = length == 0;
+		if(emptyList) {
+			return 1;
+		}
+		assert numberBars > 0;
+		// add 1 to include starting 0
+		int barRange = (maxDataValue / numberBars) + 1;
+		return barRange;
+	}
+
+	// one binary search per bar beats a scan over every value once there are few bars per value
+	private static boolean isBoundarySearchCheaper(int numberBars, int length) {
+		int log2Length = 32 - Integer.numberOfLeadingZeros(length);
+		return (long) numberBars * log2Length < length;
+	}
+
+	// each bar ends where the next bar's first value would be
+	private static void addIntegerCountFromBoundaries(int[] sortedIntegerList, int[] integerCountList,
+			int barRange) {
+		int start = 0;
+		long boundary = 0;
+		for(int i = 0; i < integerCountList.length && start < sortedIntegerList.length; i++) {
+			boundary += barRange;
+			int end = lowerBound(sortedIntegerList, start, boundary);
+			integerCountList[i] = end - start;
+			start = end;
+		}
+	}
+
+	// index of the first value >= key, searching from fromIndex to the end of the list
+	private static int lowerBound(int[] sortedIntegerList, int fromIndex, long key) {
+		int low = fromIndex;
+		int high = sortedIntegerList.length;
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+			if(sortedIntegerList[mid] < key) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private static int findMaxCount(int[] integerCountList) {
+		int maxCount = Integer.MIN_VALUE;
+		for(int count : integerCountList) {
+			if(count > maxCount) {
+				maxCount = count;
+			}
+		}
+		return maxCount;
+	}
+}
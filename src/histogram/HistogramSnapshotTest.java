@@ -0,0 +1,106 @@
+package histogram;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit Test class for the HistogramSnapshot class, including readers running
+ * against a writer on other threads.
+ */
+public class HistogramSnapshotTest extends TestCase {
+
+	private static final int READERS = 3;
+	private static final int WRITES = 3000;
+
+	public void testSnapshotDoesNotChange() {
+		Histogram histogram = new Histogram(new int[] {1, 2, 3, 9}, 2);
+		HistogramSnapshot snapshot = histogram.getSnapshot();
+		histogram.setData(new int[] {100, 200});
+		histogram.setNumberBars(7);
+		assertEquals(2, snapshot.getNumberBars());
+		assertEquals(4, snapshot.getValueCount());
+		assertEquals(3, snapshot.getBarCount(0));
+		assertEquals(1, snapshot.getBarCount(1));
+		assertEquals(2.0, snapshot.getStatistics().getMedian(), 0);
+		assertTrue(snapshot.getVersion() < histogram.getVersion());
+		assertSame(histogram.getSnapshot(), histogram.getSnapshot());
+	}
+
+	public void testConcurrentReadersSeeConsistentSnapshots() throws InterruptedException {
+		final Histogram histogram = new Histogram(new int[] {0}, 1);
+		final AtomicBoolean writing = new AtomicBoolean(true);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+		Thread[] readers = new Thread[READERS];
+		for(int r = 0; r < READERS; r++) {
+			readers[r] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						long lastVersion = 0;
+						while(writing.get()) {
+							HistogramSnapshot snapshot = histogram.getSnapshot();
+							assertTrue(snapshot.getVersion() >= lastVersion);
+							lastVersion = snapshot.getVersion();
+							long total = 0;
+							int max = Integer.MIN_VALUE;
+							int expectedRangeMin = 0;
+							for(int i = 0; i < snapshot.getNumberBars(); i++) {
+								int count = snapshot.getBarCount(i);
+								total += count;
+								max = Math.max(max, count);
+								assertEquals(expectedRangeMin, snapshot.getBarRangeMin(i));
+								expectedRangeMin = snapshot.getBarRangeMax(i) + 1;
+							}
+							assertEquals(snapshot.getValueCount(), total);
+							assertEquals(snapshot.getMaxBarCount(), max);
+							if(snapshot.getValueCount() > 0) {
+								HistogramStatistics stats = snapshot.getStatistics();
+								assertEquals(snapshot.getValueCount(), stats.getCount());
+								assertTrue(stats.getMax() <= snapshot.getBarRangeMax(snapshot.getNumberBars() - 1));
+							}
+						}
+					} catch(Throwable e) {
+						failure.compareAndSet(null, e);
+					}
+				}
+			});
+			readers[r].start();
+		}
+
+		Random random = new Random(21);
+		try {
+			for(int i = 0; i < WRITES && failure.get() == null; i++) {
+				int[] data = new int[1 + random.nextInt(2000)];
+				for(int j = 0; j < data.length; j++) {
+					data[j] = random.nextInt(1 + random.nextInt(100000));
+				}
+				switch(i % 3) {
+				case 0:
+					histogram.setData(data);
+					break;
+				case 1:
+					histogram.setNumberBars(1 + random.nextInt(500));
+					break;
+				default:
+					histogram.merge(new Histogram(data, 1));
+					break;
+				}
+				if(histogram.getSnapshot().getValueCount() > 100000) {
+					histogram.setData(data);
+				}
+			}
+		} finally {
+			writing.set(false);
+			for(Thread reader : readers) {
+				reader.join();
+			}
+		}
+		if(failure.get() != null) {
+			throw new AssertionError(failure.get());
+		}
+	}
+}
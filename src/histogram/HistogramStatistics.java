@@ -0,0 +1,212 @@
+package histogram;
+
+/**
+ * Summary statistics of the values in a histogram: count, min, max, mean,
+ * standard deviation and percentiles.
+ *
+ * When built from the sorted values of a Histogram the results are exact and
+ * a percentile is a single array lookup. When built from bucket counts, as
+ * for the streaming and bucketed histograms, min and max are bucket bounds,
+ * the mean uses bucket midpoints and percentiles interpolate linearly inside
+ * the bucket they fall in.
+ *
+ * Instances never change; the histograms cache them until their data changes.
+ */
+public final class HistogramStatistics {
+
+	private final long count;
+	private final int min;
+	private final int max;
+	private final double mean;
+	private final double standardDeviation;
+	private final long version;
+
+	// exact: the sorted values, shared and never modified
+	private final int[] sortedValues;
+
+	// bucketed: only the non-empty buckets
+	private final int[] bucketMin;
+	private final int[] bucketMax;
+	private final long[] cumulativeCounts;
+
+	private HistogramStatistics(int[] sortedValues, long version) {
+		this.sortedValues = sortedValues;
+		this.bucketMin = null;
+		this.bucketMax = null;
+		this.cumulativeCounts = null;
+		this.version = version;
+		this.count = sortedValues.length;
+		if(count == 0) {
+			min = -1;
+			max = -1;
+			mean = Double.NaN;
+			standardDeviation = Double.NaN;
+			return;
+		}
+		min = sortedValues[0];
+		max = sortedValues[sortedValues.length - 1];
+		long sum = 0;
+		for(int value : sortedValues) {
+			sum += value;
+		}
+		mean = (double) sum / count;
+		double squares = 0;
+		for(int value : sortedValues) {
+			double deviation = value - mean;
+			squares += deviation * deviation;
+		}
+		standardDeviation = Math.sqrt(squares / count);
+	}
+
+	private HistogramStatistics(int[] bucketMin, int[] bucketMax, int[] bucketCounts, int buckets, long version) {
+		this.sortedValues = null;
+		this.version = version;
+		this.bucketMin = bucketMin;
+		this.bucketMax = bucketMax;
+		this.cumulativeCounts = new long[buckets];
+		long total = 0;
+		double sum = 0;
+		for(int i = 0; i < buckets; i++) {
+			total += bucketCounts[i];
+			cumulativeCounts[i] = total;
+			sum += midpoint(i) * bucketCounts[i];
+		}
+		this.count = total;
+		if(total == 0) {
+			min = -1;
+			max = -1;
+			mean = Double.NaN;
+			standardDeviation = Double.NaN;
+			return;
+		}
+		min = bucketMin[0];
+		max = bucketMax[buckets - 1];
+		mean = sum / total;
+		double squares = 0;
+		for(int i = 0; i < buckets; i++) {
+			double deviation = midpoint(i) - mean;
+			squares += deviation * deviation * bucketCounts[i];
+		}
+		standardDeviation = Math.sqrt(squares / total);
+	}
+
+	private double midpoint(int bucket) {
+		return (bucketMin[bucket] + (double) bucketMax[bucket]) / 2;
+	}
+
+	/**
+	 * Exact statistics over values that are already sorted. The array is kept,
+	 * so the caller must not modify it afterwards.
+	 */
+	static HistogramStatistics fromSortedValues(int[] sortedValues, long version) {
+		return new HistogramStatistics(sortedValues, version);
+	}
+
+	/**
+	 * Approximate statistics over the bars of a histogram.
+	 */
+	static HistogramStatistics fromBars(HistogramView view) {
+		int numberBars = view.getNumberBars();
+		int[] bucketMin = new int[numberBars];
+		int[] bucketMax = new int[numberBars];
+		int[] bucketCounts = new int[numberBars];
+		int buckets = 0;
+		for(int i = 0; i < numberBars; i++) {
+			int count = view.getBarCount(i);
+			if(count > 0) {
+				bucketMin[buckets] = view.getBarRangeMin(i);
+				bucketMax[buckets] = view.getBarRangeMax(i);
+				bucketCounts[buckets] = count;
+				buckets++;
+			}
+		}
+		return new HistogramStatistics(bucketMin, bucketMax, bucketCounts, buckets, view.getVersion());
+	}
+
+	/**
+	 * Approximate statistics over equal width buckets starting at 0.
+	 */
+	static HistogramStatistics fromBuckets(int[] counts, int bucketWidth, long version) {
+		int buckets = 0;
+		for(int count : counts) {
+			if(count > 0) {
+				buckets++;
+			}
+		}
+		int[] bucketMin = new int[buckets];
+		int[] bucketMax = new int[buckets];
+		int[] bucketCounts = new int[buckets];
+		int bucket = 0;
+		for(int i = 0; i < counts.length; i++) {
+			if(counts[i] > 0) {
+				bucketMin[bucket] = i * bucketWidth;
+				bucketMax[bucket] = i * bucketWidth + bucketWidth - 1;
+				bucketCounts[bucket] = counts[i];
+				bucket++;
+			}
+		}
+		return new HistogramStatistics(bucketMin, bucketMax, bucketCounts, buckets, version);
+	}
+
+	/**
+	 * Value below which the given percentage of values fall, e.g. 99.9 for
+	 * p99.9. Exact statistics return the nearest-rank value.
+	 */
+	public double getValueAtPercentile(double percentile) {
+		if(!(percentile >= 0 && percentile <= 100)) {
+			throw new IllegalArgumentException("percentile is not between 0 and 100: " + percentile);
+		}
+		if(count == 0) {
+			throw new IllegalStateException("No values recorded");
+		}
+		if(sortedValues != null) {
+			long rank = (long) Math.ceil(percentile * count / 100);
+			return sortedValues[(int) Math.max(rank - 1, 0)];
+		}
+		double target = percentile * count / 100;
+		int bucket = 0;
+		while(cumulativeCounts[bucket] < target) {
+			bucket++;
+		}
+		long before = bucket == 0 ? 0 : cumulativeCounts[bucket - 1];
+		double fraction = (target - before) / (cumulativeCounts[bucket] - before);
+		return bucketMin[bucket] + fraction * (bucketMax[bucket] - bucketMin[bucket]);
+	}
+
+	public double getMedian() {
+		return getValueAtPercentile(50);
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	// -1 when there are no values
+	public int getMin() {
+		return min;
+	}
+
+	// -1 when there are no values
+	public int getMax() {
+		return max;
+	}
+
+	// NaN when there are no values
+	public double getMean() {
+		return mean;
+	}
+
+	// population standard deviation, NaN when there are no values
+	public double getStandardDeviation() {
+		return standardDeviation;
+	}
+
+	public boolean isExact() {
+		return sortedValues != null;
+	}
+
+	// version of the histogram these statistics were computed from
+	long getVersion() {
+		return version;
+	}
+}
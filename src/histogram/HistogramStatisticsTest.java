@@ -0,0 +1,98 @@
+package histogram;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit Test class for the HistogramStatistics class.
+ */
+public class HistogramStatisticsTest extends TestCase {
+
+	public void testExactStatistics() {
+		int[] data = new int[1000];
+		for(int i = 0; i < data.length; i++) {
+			data[i] = data.length - i;
+		}
+		Histogram histogram = new Histogram(data, 7);
+		HistogramStatistics stats = histogram.getStatistics();
+		assertTrue(stats.isExact());
+		assertEquals(1000, stats.getCount());
+		assertEquals(1, stats.getMin());
+		assertEquals(1000, stats.getMax());
+		assertEquals(500.5, stats.getMean(), 1e-9);
+		assertEquals(Math.sqrt((1000.0 * 1000 - 1) / 12), stats.getStandardDeviation(), 1e-9);
+		assertEquals(500.0, stats.getMedian(), 0);
+		assertEquals(900.0, stats.getValueAtPercentile(90), 0);
+		assertEquals(990.0, stats.getValueAtPercentile(99), 0);
+		assertEquals(999.0, stats.getValueAtPercentile(99.9), 0);
+		assertEquals(1.0, stats.getValueAtPercentile(0), 0);
+		assertEquals(1000.0, stats.getValueAtPercentile(100), 0);
+	}
+
+	public void testCachedUntilDataChanges() {
+		Histogram histogram = new Histogram(new int[] {3, 1, 2}, 2);
+		HistogramStatistics stats = histogram.getStatistics();
+		histogram.setNumberBars(3);
+		assertSame(stats, histogram.getStatistics());
+		histogram.setData(new int[] {10});
+		assertNotSame(stats, histogram.getStatistics());
+		assertEquals(10.0, histogram.getStatistics().getMedian(), 0);
+		assertEquals(2.0, stats.getMedian(), 0);
+	}
+
+	public void testBucketedStatisticsApproximateExact() {
+		Random random = new Random(3);
+		int[] data = new int[20000];
+		for(int i = 0; i < data.length; i++) {
+			data[i] = random.nextInt(100000);
+		}
+		HistogramStatistics exact = new Histogram(data, 1).getStatistics();
+		StreamingHistogram streaming = new StreamingHistogram(10, 4096, false);
+		streaming.recordAll(data);
+		LogLinearHistogram logLinear = new LogLinearHistogram(2, 100000);
+		logLinear.recordAll(data);
+
+		for(HistogramStatistics stats : Arrays.asList(streaming.getStatistics(), logLinear.getStatistics())) {
+			assertFalse(stats.isExact());
+			assertEquals(exact.getCount(), stats.getCount());
+			assertEquals(exact.getMean(), stats.getMean(), 100);
+			assertEquals(exact.getStandardDeviation(), stats.getStandardDeviation(), 100);
+			for(double percentile : new double[] {50, 90, 99, 99.9}) {
+				assertEquals(exact.getValueAtPercentile(percentile), stats.getValueAtPercentile(percentile), 1000);
+			}
+			assertTrue(stats.getMin() <= exact.getMin());
+			assertTrue(stats.getMax() >= exact.getMax());
+		}
+	}
+
+	public void testBucketedCacheFollowsVersion() {
+		LogLinearHistogram hist = new LogLinearHistogram(2);
+		hist.record(5);
+		HistogramStatistics stats = hist.getStatistics();
+		assertSame(stats, hist.getStatistics());
+		assertEquals(5.0, stats.getMedian(), 0);
+		hist.record(7);
+		assertNotSame(stats, hist.getStatistics());
+		assertEquals(2, hist.getStatistics().getCount());
+	}
+
+	public void testEmpty() {
+		HistogramStatistics stats = new Histogram(new int[0], 2).getStatistics();
+		assertEquals(0, stats.getCount());
+		assertTrue(Double.isNaN(stats.getMean()));
+		try {
+			stats.getMedian();
+			fail();
+		} catch(IllegalStateException e) {
+			assertTrue(true);
+		}
+		try {
+			new Histogram(new int[] {1}, 1).getStatistics().getValueAtPercentile(101);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+	}
+}
@@ -1,7 +1,9 @@
 package histogram;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import junit.framework.TestCase;
 
@@ -269,4 +271,236 @@ public class HistogramTest extends TestCase {
 		assertBarsRange(hist.iterator(), 51);
 	}
 
+	public void testBarAccessors() {
+		Histogram hist = new Histogram(new int[] {0,999,1998,2997,3996,4995}, 5);
+		int index = 0;
+		for(Histogram.Bar bar : hist) {
+			assertEquals(bar.getCount(), hist.getBarCount(index));
+			assertEquals(bar.getRangeMin(), hist.getBarRangeMin(index));
+			assertEquals(bar.getRangeMax(), hist.getBarRangeMax(index));
+			index++;
+		}
+		assertEquals(2, hist.getMaxBarCount());
+
+		final int[] visited = new int[hist.getNumberBars()];
+		hist.forEachBar(new IntBarConsumer() {
+			@Override
+			public void accept(int index, int rangeMin, int rangeMax, int count) {
+				assertEquals(rangeMin + 999, rangeMax);
+				visited[index] = count;
+			}
+		});
+		assertTrue(Arrays.equals(new int[]{2,1,1,1,1}, visited));
+
+		hist.setData(new int[] {1,1,1,2});
+		assertEquals(3, hist.getMaxBarCount());
+	}
+
+	public void testRebinMatchesScan() {
+		int[] integerList = new int[10000];
+		Random random = new Random(3);
+		for(int i = 0; i < integerList.length; i++) {
+			integerList[i] = random.nextInt(5000);
+		}
+		Histogram hist = new Histogram(integerList, 1);
+		for(int numberBars = 1; numberBars <= 2000; numberBars *= 3) {
+			hist.setNumberBars(numberBars);
+			int barRange = hist.getBarRangeMax(0) + 1;
+			int[] expectedCounts = new int[numberBars];
+			for(int integer : integerList) {
+				expectedCounts[integer / barRange]++;
+			}
+			assertBarCountEqual(hist.iterator(), expectedCounts);
+		}
+	}
+
+	public void testParallelMatchesSequential() {
+		int[] integerList = new int[200000];
+		Random random = new Random(5);
+		for(int i = 0; i < integerList.length; i++) {
+			integerList[i] = random.nextInt(1000000);
+		}
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for(int numberBars = 1; numberBars <= 100000; numberBars *= 10) {
+				Histogram sequential = new Histogram(integerList, numberBars);
+				Histogram parallel = new Histogram(new int[] {}, numberBars);
+				parallel.setDataParallel(integerList, pool);
+				for(int i = 0; i < numberBars; i++) {
+					assertEquals(sequential.getBarCount(i), parallel.getBarCount(i));
+					assertEquals(sequential.getBarRangeMin(i), parallel.getBarRangeMin(i));
+				}
+			}
+
+			Histogram hist = new Histogram(new int[] {}, 1);
+			integerList[integerList.length / 2] = -1;
+			try {
+				hist.setDataParallel(integerList, pool);
+				fail();
+			} catch(IllegalArgumentException e) {
+				assertTrue(true);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	public void testMerge() {
+		Histogram hist = new Histogram(new int[] {0,999,1998}, 5);
+		hist.merge(new Histogram(new int[] {2997,3996,4995}, 2));
+		assertEquals(5, hist.getNumberBars());
+		assertBarCountEqual(hist.iterator(), new int[]{2,1,1,1,1});
+		assertBarsRange(hist.iterator(), 1000);
+	}
+
+	private void assertSameBars(Histogram expected, Histogram given) {
+		assertEquals(expected.getNumberBars(), given.getNumberBars());
+		for(int i = 0; i < expected.getNumberBars(); i++) {
+			assertEquals(expected.getBarRangeMin(i), given.getBarRangeMin(i));
+			assertEquals(expected.getBarCount(i), given.getBarCount(i));
+		}
+		assertEquals(expected.getMaxBarCount(), given.getMaxBarCount());
+	}
+
+	public void testAddAndRemoveValues() {
+		Random random = new Random(22);
+		int[] base = new int[20000];
+		for(int i = 0; i < base.length; i++) {
+			base[i] = random.nextInt(10000);
+		}
+		int[] delta = new int[] {5, 5, 9999, 0, 1234};
+		int[] combined = Arrays.copyOf(base, base.length + delta.length);
+		System.arraycopy(delta, 0, combined, base.length, delta.length);
+
+		// 10 bars sort the values, 5000 bars leave them unsorted
+		for(int numberBars : new int[] {10, 5000}) {
+			Histogram hist = new Histogram(base, numberBars);
+			hist.addValues(delta);
+			assertSameBars(new Histogram(combined, numberBars), hist);
+			assertEquals(combined.length, hist.getStatistics().getCount());
+
+			hist.removeValues(delta);
+			assertSameBars(new Histogram(base, numberBars), hist);
+			assertEquals(new Histogram(base, 1).getStatistics().getMedian(), hist.getStatistics().getMedian(), 0);
+		}
+	}
+
+	public void testAddAndRemoveChangingMax() {
+		Histogram hist = new Histogram(new int[] {1, 2, 3}, 2);
+		hist.addValues(new int[] {100});
+		assertSameBars(new Histogram(new int[] {1, 2, 3, 100}, 2), hist);
+		hist.removeValues(new int[] {100, 1});
+		assertSameBars(new Histogram(new int[] {2, 3}, 2), hist);
+		hist.removeValues(new int[] {3, 2});
+		assertSameBars(new Histogram(new int[0], 2), hist);
+		hist.addValues(new int[] {7});
+		assertSameBars(new Histogram(new int[] {7}, 2), hist);
+	}
+
+	public void testFailRemoveValues() {
+		Histogram hist = new Histogram(new int[] {1, 2, 2, 3}, 2);
+		try {
+			hist.removeValues(new int[] {2, 2, 2});
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+		try {
+			hist.removeValues(new int[] {4});
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+		try {
+			hist.addValues(new int[] {-1});
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+		assertSameBars(new Histogram(new int[] {1, 2, 2, 3}, 2), hist);
+	}
+
+	public void testUpdate() {
+		Random random = new Random(24);
+		int[] integerList = new int[5000];
+		for(int i = 0; i < integerList.length; i++) {
+			integerList[i] = random.nextInt(100000);
+		}
+		Histogram hist = new Histogram(new int[] {1, 2, 3}, 2);
+		long version = hist.getVersion();
+		hist.update(integerList, 7);
+		assertEquals(version + 1, hist.getVersion());
+		assertSameBars(new Histogram(integerList, 7), hist);
+
+		// few distinct values take the counting path
+		hist.update(new int[] {4, 0, 4, 2}, 3);
+		assertSameBars(new Histogram(new int[] {0, 2, 4, 4}, 3), hist);
+		try {
+			hist.update(integerList, -1);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+		try {
+			hist.update(null, 1);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+		assertSameBars(new Histogram(new int[] {0, 2, 4, 4}, 3), hist);
+	}
+
+	public void testAddValuesAfterBarsRead() {
+		Histogram hist = new Histogram(new int[] {10, 20, 30, 40, 50}, 5);
+		assertEquals(1, hist.getMaxBarCount());
+		hist.addValues(new int[] {11, 12});
+		assertSameBars(new Histogram(new int[] {10, 11, 12, 20, 30, 40, 50}, 5), hist);
+		assertEquals(3, hist.getMaxBarCount());
+		hist.removeValues(new int[] {12, 50});
+		assertSameBars(new Histogram(new int[] {10, 11, 20, 30, 40}, 5), hist);
+	}
+
+	public void testRangeQueries() {
+		Random random = new Random(25);
+		int[] integerList = new int[3000];
+		for(int i = 0; i < integerList.length; i++) {
+			integerList[i] = random.nextInt(500);
+		}
+		Histogram hist = new Histogram(integerList, 10);
+		for(int lo = -2; lo < 510; lo += 7) {
+			for(int hi = lo; hi < 510; hi += 13) {
+				int expected = 0;
+				for(int integer : integerList) {
+					if(integer >= lo && integer <= hi) {
+						expected++;
+					}
+				}
+				assertEquals(expected, hist.countBetween(lo, hi));
+			}
+		}
+		assertEquals(0, hist.rank(-1));
+		assertEquals(integerList.length, hist.rank(Integer.MAX_VALUE));
+		assertEquals(integerList.length, hist.countBetween(Integer.MIN_VALUE, Integer.MAX_VALUE));
+		assertEquals(1.0, hist.cdf(499), 0);
+
+		hist = new Histogram(new int[] {1, 3, 3, 7}, 2);
+		assertEquals(3, hist.rank(3));
+		assertEquals(0.75, hist.cdf(6), 0);
+		hist.addValues(new int[] {5});
+		assertEquals(4, hist.rank(6));
+		assertEquals(2, hist.countBetween(4, 7));
+		try {
+			hist.countBetween(3, 2);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+		try {
+			new Histogram(new int[0], 1).cdf(0);
+			fail();
+		} catch(IllegalStateException e) {
+			assertTrue(true);
+		}
+	}
+
 }
@@ -0,0 +1,36 @@
+package histogram;
+
+/**
+ * Read access to the bars of a histogram. Besides iterating over Bar objects,
+ * bars can be read by index through primitive accessors that do not allocate,
+ * which is what painting and other hot readers should use.
+ */
+public interface HistogramView extends Iterable<Histogram.Bar> {
+
+	int getNumberBars();
+
+	int getBarCount(int index);
+
+	int getBarRangeMin(int index);
+
+	int getBarRangeMax(int index);
+
+	int getMaxBarCount();
+
+	void forEachBar(IntBarConsumer consumer);
+
+	/**
+	 * Changes whenever the bars may have changed, so readers can cache
+	 * anything derived from them until the version moves on.
+	 */
+	long getVersion();
+
+	/**
+	 * A view that does not change while it is read, for readers on another
+	 * thread than the writer. Views that are only used from one thread return
+	 * themselves.
+	 */
+	default HistogramView getSnapshot() {
+		return this;
+	}
+}
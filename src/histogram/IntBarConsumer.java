@@ -0,0 +1,8 @@
+package histogram;
+
+/**
+ * Callback for visiting the bars of a histogram without creating Bar objects.
+ */
+public interface IntBarConsumer {
+	void accept(int index, int rangeMin, int rangeMax, int count);
+}
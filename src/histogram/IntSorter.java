@@ -0,0 +1,128 @@
+package histogram;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+
+/**
+ * Sorting for the non-negative ints a histogram holds, picked from a cheap
+ * scan for the smallest value:
+ * - a counting sort when there are no more distinct possible values than
+ *   values, which is O(n + max - min),
+ * - an LSD radix sort on 8 bit digits otherwise, skipping digits every value
+ *   shares, with a scratch buffer kept per thread,
+ * - Arrays.sort for short arrays, where the setup of the others does not pay.
+ */
+final class IntSorter {
+
+	// below this many values Arrays.sort wins
+	private static final int MIN_RADIX_LENGTH = 1 << 10;
+	// the counts of a counting sort stay below 16 MB
+	private static final int MAX_COUNTING_RANGE = 1 << 22;
+	private static final int RADIX_BITS = 8;
+	private static final int RADIX = 1 << RADIX_BITS;
+
+	private static final ThreadLocal<SoftReference<int[]>> SCRATCH = new ThreadLocal<SoftReference<int[]>>();
+
+	private IntSorter() {
+	}
+
+	/**
+	 * Whether a counting sort over min to max beats sorting length values.
+	 */
+	static boolean isCountingSortCheaper(int length, int min, int max) {
+		long range = (long) max - min + 1;
+		return range <= length && range <= MAX_COUNTING_RANGE;
+	}
+
+	/**
+	 * A sorted copy of values, which are all between 0 and maxValue.
+	 */
+	static int[] sortedCopy(int[] values, int maxValue) {
+		int[] sorted = Arrays.copyOf(values, values.length);
+		if(values.length < MIN_RADIX_LENGTH) {
+			Arrays.sort(sorted);
+			return sorted;
+		}
+		int min = Integer.MAX_VALUE;
+		for(int value : values) {
+			min = Math.min(min, value);
+		}
+		if(isCountingSortCheaper(values.length, min, maxValue)) {
+			fillSorted(countValues(values, min, maxValue), min, sorted);
+		} else {
+			radixSort(sorted, maxValue);
+		}
+		return sorted;
+	}
+
+	/**
+	 * How often each value from min to max occurs, indexed by value - min.
+	 */
+	static int[] countValues(int[] values, int min, int max) {
+		int[] valueCounts = new int[max - min + 1];
+		for(int value : values) {
+			valueCounts[value - min]++;
+		}
+		return valueCounts;
+	}
+
+	/**
+	 * Writes every value valueCounts[i] times, in order, into sorted.
+	 */
+	static void fillSorted(int[] valueCounts, int min, int[] sorted) {
+		int index = 0;
+		for(int i = 0; i < valueCounts.length; i++) {
+			int end = index + valueCounts[i];
+			Arrays.fill(sorted, index, end, min + i);
+			index = end;
+		}
+	}
+
+	private static void radixSort(int[] values, int maxValue) {
+		int digits = (32 - Integer.numberOfLeadingZeros(maxValue) + RADIX_BITS - 1) / RADIX_BITS;
+		// the counts of every digit in one pass over the values
+		int[][] digitCounts = new int[digits][RADIX];
+		for(int value : values) {
+			for(int digit = 0; digit < digits; digit++) {
+				digitCounts[digit][(value >>> (digit * RADIX_BITS)) & (RADIX - 1)]++;
+			}
+		}
+		int[] source = values;
+		int[] target = scratch(values.length);
+		for(int digit = 0; digit < digits; digit++) {
+			int[] counts = digitCounts[digit];
+			int shift = digit * RADIX_BITS;
+			// every value has the same digit, so this pass would not move anything
+			if(counts[(source[0] >>> shift) & (RADIX - 1)] == values.length) {
+				continue;
+			}
+			int offset = 0;
+			for(int i = 0; i < RADIX; i++) {
+				int count = counts[i];
+				counts[i] = offset;
+				offset += count;
+			}
+			for(int i = 0; i < values.length; i++) {
+				int value = source[i];
+				target[counts[(value >>> shift) & (RADIX - 1)]++] = value;
+			}
+			int[] swap = source;
+			source = target;
+			target = swap;
+		}
+		if(source != values) {
+			System.arraycopy(source, 0, values, 0, values.length);
+		}
+	}
+
+	// kept per thread and softly, so repeated sorts reuse it and the garbage collector can still take it
+	private static int[] scratch(int length) {
+		SoftReference<int[]> reference = SCRATCH.get();
+		int[] scratch = reference == null ? null : reference.get();
+		if(scratch == null || scratch.length < length) {
+			scratch = new int[length];
+			SCRATCH.set(new SoftReference<int[]>(scratch));
+		}
+		return scratch;
+	}
+}
@@ -0,0 +1,82 @@
+package histogram;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit Test class for the IntSorter class.
+ */
+public class IntSorterTest extends TestCase {
+
+	private void assertSortsLikeArraysSort(int[] values) {
+		int max = -1;
+		for(int value : values) {
+			max = Math.max(max, value);
+		}
+		int[] expected = Arrays.copyOf(values, values.length);
+		Arrays.sort(expected);
+		int[] copy = Arrays.copyOf(values, values.length);
+		assertTrue(Arrays.equals(expected, IntSorter.sortedCopy(values, max)));
+		// the input is left alone
+		assertTrue(Arrays.equals(copy, values));
+	}
+
+	public void testSortsEveryStrategy() {
+		Random random = new Random(23);
+		int[] lengths = new int[] {0, 1, 5, 1000, 1024, 5000, 100000};
+		int[] maxValues = new int[] {1, 100, 70000, 1 << 24, Integer.MAX_VALUE};
+		for(int length : lengths) {
+			for(int maxValue : maxValues) {
+				int[] values = new int[length];
+				for(int i = 0; i < length; i++) {
+					values[i] = random.nextInt(maxValue);
+				}
+				assertSortsLikeArraysSort(values);
+			}
+		}
+	}
+
+	public void testNarrowRangeFarFromZero() {
+		int[] values = new int[5000];
+		Random random = new Random(24);
+		for(int i = 0; i < values.length; i++) {
+			values[i] = 2000000000 + random.nextInt(100);
+		}
+		assertTrue(IntSorter.isCountingSortCheaper(values.length, 2000000000, 2000000099));
+		assertSortsLikeArraysSort(values);
+	}
+
+	public void testSharedDigitsAndEdgeValues() {
+		int[] values = new int[3000];
+		for(int i = 0; i < values.length; i++) {
+			// only the second byte differs
+			values[i] = 0x7F0000FF | ((values.length - i) % 200) << 8;
+		}
+		values[7] = 0;
+		values[8] = Integer.MAX_VALUE;
+		assertSortsLikeArraysSort(values);
+	}
+
+	public void testCountingPassGivesBarCounts() {
+		Random random = new Random(25);
+		int[] values = new int[10000];
+		for(int i = 0; i < values.length; i++) {
+			values[i] = random.nextInt(101);
+		}
+		for(int numberBars = 1; numberBars < 30; numberBars += 7) {
+			Histogram hist = new Histogram(values, numberBars);
+			hist.setData(values);
+			int barRange = hist.getBarRangeMax(0) + 1;
+			int[] expected = new int[numberBars];
+			for(int value : values) {
+				expected[value / barRange]++;
+			}
+			for(int i = 0; i < numberBars; i++) {
+				assertEquals(expected[i], hist.getBarCount(i));
+			}
+			assertEquals(50.0, hist.getStatistics().getMedian(), 2);
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package histogram;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Reads integers separated by commas and/or whitespace and records each one
+ * into a ValueRecorder as soon as its last digit is read. Digits are
+ * accumulated directly, so no String or boxed Integer is created per value.
+ * A parser keeps its read buffers and can be reused for any number of inputs,
+ * but is not thread-safe. Empty entries (",,") are skipped.
+ *
+ * Malformed input (stray characters, a sign without digits, values outside
+ * the int range) is reported with a MalformedDataException holding its position.
+ */
+public class IntTextParser {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private char[] charBuffer;
+	private byte[] byteBuffer;
+
+	// state of the value being read
+	private long position;
+	private boolean inValue;
+	private boolean hasDigits;
+	private boolean negative;
+	private long value;
+
+	/**
+	 * Parses a whole text, e.g. the contents of a text box, into an array.
+	 */
+	public static int[] parseToArray(CharSequence text) {
+		IntArrayRecorder recorder = new IntArrayRecorder();
+		new IntTextParser().parse(text, recorder);
+		return recorder.toArray();
+	}
+
+	public void parse(CharSequence text, ValueRecorder recorder) {
+		reset();
+		int length = text.length();
+		for(int i = 0; i < length; i++) {
+			accept(text.charAt(i), recorder);
+		}
+		endValue(recorder);
+	}
+
+	public void parse(Reader reader, ValueRecorder recorder) throws IOException {
+		if(charBuffer == null) {
+			charBuffer = new char[BUFFER_SIZE];
+		}
+		reset();
+		int read;
+		while((read = reader.read(charBuffer)) != -1) {
+			for(int i = 0; i < read; i++) {
+				accept(charBuffer[i], recorder);
+			}
+		}
+		endValue(recorder);
+	}
+
+	/**
+	 * Reads the stream as ASCII (or UTF-8, which agrees for every valid character).
+	 */
+	public void parse(InputStream in, ValueRecorder recorder) throws IOException {
+		if(byteBuffer == null) {
+			byteBuffer = new byte[BUFFER_SIZE];
+		}
+		reset();
+		int read;
+		while((read = in.read(byteBuffer)) != -1) {
+			for(int i = 0; i < read; i++) {
+				accept(byteBuffer[i] & 0xFF, recorder);
+			}
+		}
+		endValue(recorder);
+	}
+
+	/**
+	 * Reads the buffer's remaining bytes in place and leaves its position at the limit.
+	 */
+	public void parse(ByteBuffer buffer, ValueRecorder recorder) {
+		reset();
+		int limit = buffer.limit();
+		for(int i = buffer.position(); i < limit; i++) {
+			accept(buffer.get(i) & 0xFF, recorder);
+		}
+		buffer.position(limit);
+		endValue(recorder);
+	}
+
+	private void reset() {
+		position = 0;
+		inValue = false;
+	}
+
+	private void accept(int c, ValueRecorder recorder) {
+		if(c >= '0' && c <= '9') {
+			if(!inValue) {
+				startValue(false);
+			}
+			value = value * 10 + (c - '0');
+			hasDigits = true;
+			if(value > Integer.MAX_VALUE + (negative ? 1L : 0L)) {
+				throw new MalformedDataException("Value out of int range", position);
+			}
+		} else if(c == ',' || Character.isWhitespace(c)) {
+			endValue(recorder);
+		} else if((c == '-' || c == '+') && !inValue) {
+			startValue(c == '-');
+		} else {
+			throw new MalformedDataException("Unexpected character '" + (char) c + "'", position);
+		}
+		position++;
+	}
+
+	private void startValue(boolean negativeValue) {
+		inValue = true;
+		hasDigits = false;
+		negative = negativeValue;
+		value = 0;
+	}
+
+	private void endValue(ValueRecorder recorder) {
+		if(!inValue) {
+			return;
+		}
+		if(!hasDigits) {
+			throw new MalformedDataException("Sign without digits", position - 1);
+		}
+		inValue = false;
+		recorder.record((int) (negative ? -value : value));
+	}
+
+	// collects parsed values into a growing array
+	private static final class IntArrayRecorder implements ValueRecorder {
+		private int[] values = new int[16];
+		private int size = 0;
+
+		public void record(int value) {
+			if(size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package histogram;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit Test class for the IntTextParser class.
+ */
+public class IntTextParserTest extends TestCase {
+
+	private static final String TEXT = " 5, 6,7,,8 ,\n14\t-3,+2,2147483647,-2147483648, ";
+	private static final int[] VALUES = new int[] {5, 6, 7, 8, 14, -3, 2, Integer.MAX_VALUE, Integer.MIN_VALUE};
+
+	private static final class ListRecorder implements ValueRecorder {
+		int[] values = new int[0];
+
+		public void record(int value) {
+			values = Arrays.copyOf(values, values.length + 1);
+			values[values.length - 1] = value;
+		}
+	}
+
+	public void testParseToArray() {
+		assertTrue(Arrays.equals(VALUES, IntTextParser.parseToArray(TEXT)));
+		assertEquals(0, IntTextParser.parseToArray("").length);
+		assertEquals(0, IntTextParser.parseToArray(" , ,").length);
+	}
+
+	public void testAllInputsAgree() throws IOException {
+		IntTextParser parser = new IntTextParser();
+		byte[] bytes = TEXT.getBytes(StandardCharsets.US_ASCII);
+
+		ListRecorder fromReader = new ListRecorder();
+		parser.parse(new StringReader(TEXT), fromReader);
+		assertTrue(Arrays.equals(VALUES, fromReader.values));
+
+		ListRecorder fromStream = new ListRecorder();
+		parser.parse(new ByteArrayInputStream(bytes), fromStream);
+		assertTrue(Arrays.equals(VALUES, fromStream.values));
+
+		ListRecorder fromBuffer = new ListRecorder();
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		parser.parse(buffer, fromBuffer);
+		assertTrue(Arrays.equals(VALUES, fromBuffer.values));
+		assertFalse(buffer.hasRemaining());
+	}
+
+	public void testRecordsIntoHistogram() {
+		StreamingHistogram hist = new StreamingHistogram(5);
+		new IntTextParser().parse("5, 6, 7, 8, 14", hist);
+		assertEquals(5, hist.getTotalCount());
+		assertEquals(14, hist.getMaxValue());
+	}
+
+	private void assertMalformed(String text, long position) {
+		try {
+			IntTextParser.parseToArray(text);
+			fail();
+		} catch(MalformedDataException e) {
+			assertEquals(position, e.getPosition());
+		}
+	}
+
+	public void testMalformedInput() {
+		assertMalformed("1, 2, x", 6);
+		assertMalformed("1,2a", 3);
+		assertMalformed("12-3", 2);
+		assertMalformed("1, -", 3);
+		assertMalformed("2147483648", 9);
+		assertMalformed("-2147483649", 10);
+		try {
+			IntTextParser.parseToArray("1.5");
+			fail();
+		} catch(NumberFormatException e) {
+			assertTrue(true);
+		}
+	}
+}
@@ -0,0 +1,293 @@
+package histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Histogram with log-linear (HDR style) bucketing for values spanning many
+ * orders of magnitude.
+ *
+ * Values are grouped by their power of two, and each power of two is split
+ * into equal sub-buckets, so every value is counted with a relative error
+ * below 10^-significantDigits. The bucket of a value is found in O(1) from
+ * its number of leading zeros, and the count array is sized once from the
+ * highest trackable value, so memory does not depend on how many values are
+ * recorded. Each Bar is one sub-bucket and reports its exact value range.
+ * A Fenwick tree over the sub-buckets keeps range and CDF queries
+ * O(log buckets) while values are recorded.
+ */
+public class LogLinearHistogram implements HistogramView, ValueRecorder {
+
+	// first bytes of an encoded LogLinearHistogram, "LL" plus format version 1
+	private static final int ENCODING_COOKIE = 0x4C4C0001;
+
+	private final int significantDigits;
+	private final int highestTrackableValue;
+	private final int subBucketHalfCountMagnitude;
+	private final int subBucketHalfCount;
+	private final int subBucketMask;
+	private final int[] counts;
+	private final FenwickTree bucketSums;
+	private int maxValue = -1;
+	private int totalCount = 0;
+	private int maxBarCount = 0;
+	private long version;
+	private HistogramStatistics statistics;
+
+	public LogLinearHistogram(int significantDigits) {
+		this(significantDigits, Integer.MAX_VALUE);
+	}
+
+	public LogLinearHistogram(int significantDigits, int highestTrackableValue) {
+		if(significantDigits < 0 || significantDigits > 5) {
+			throw new IllegalArgumentException("significantDigits must be between 0 and 5");
+		}
+		if(highestTrackableValue < 1) {
+			throw new IllegalArgumentException("highestTrackableValue is less than 1");
+		}
+		this.significantDigits = significantDigits;
+		this.highestTrackableValue = highestTrackableValue;
+
+		// smallest power of two that gives single unit resolution up to 2 * 10^digits
+		long largestValueWithSingleUnitResolution = 2 * (long) Math.pow(10, significantDigits);
+		int subBucketCountMagnitude = 64 - Long.numberOfLeadingZeros(largestValueWithSingleUnitResolution - 1);
+		subBucketHalfCountMagnitude = Math.max(subBucketCountMagnitude, 1) - 1;
+		int subBucketCount = 1 << (subBucketHalfCountMagnitude + 1);
+		subBucketHalfCount = subBucketCount / 2;
+		subBucketMask = subBucketCount - 1;
+
+		int bucketsNeeded = 1;
+		long smallestUntrackableValue = subBucketCount;
+		while(smallestUntrackableValue <= highestTrackableValue) {
+			smallestUntrackableValue <<= 1;
+			bucketsNeeded++;
+		}
+		counts = new int[(bucketsNeeded + 1) * subBucketHalfCount];
+		bucketSums = new FenwickTree(counts.length);
+	}
+
+	/**
+	 * Index of the bar (sub-bucket) the value is counted in.
+	 */
+	public int getBarIndex(int value) {
+		int pow2Ceiling = 32 - Integer.numberOfLeadingZeros(value | subBucketMask);
+		int bucketIndex = pow2Ceiling - (subBucketHalfCountMagnitude + 1);
+		int subBucketIndex = value >>> bucketIndex;
+		return ((bucketIndex + 1) << subBucketHalfCountMagnitude) + (subBucketIndex - subBucketHalfCount);
+	}
+
+	public int getBarRangeMin(int index) {
+		int bucketIndex = (index >> subBucketHalfCountMagnitude) - 1;
+		int subBucketIndex = (index & (subBucketHalfCount - 1)) + subBucketHalfCount;
+		if(bucketIndex < 0) {
+			// the first bucket covers 0 to subBucketCount - 1 in steps of 1
+			subBucketIndex -= subBucketHalfCount;
+			bucketIndex = 0;
+		}
+		return subBucketIndex << bucketIndex;
+	}
+
+	public int getBarRangeMax(int index) {
+		int bucketIndex = Math.max((index >> subBucketHalfCountMagnitude) - 1, 0);
+		return getBarRangeMin(index) + ((1 << bucketIndex) - 1);
+	}
+
+	public void record(int value) {
+		if(value < 0 || value > highestTrackableValue) {
+			throw new IllegalArgumentException("Invalid data: " + value);
+		}
+		int index = getBarIndex(value);
+		counts[index]++;
+		bucketSums.add(index, 1);
+		version++;
+		totalCount++;
+		if(counts[index] > maxBarCount) {
+			maxBarCount = counts[index];
+		}
+		if(value > maxValue) {
+			maxValue = value;
+		}
+	}
+
+	public void recordAll(int[] values) {
+		if(values == null) {
+			throw new IllegalArgumentException("values is null");
+		}
+		for(int value : values) {
+			record(value);
+		}
+	}
+
+	public void reset() {
+		Arrays.fill(counts, 0);
+		bucketSums.reset(counts);
+		maxValue = -1;
+		totalCount = 0;
+		maxBarCount = 0;
+		version++;
+	}
+
+	/**
+	 * Adds the counts of another histogram with the same significant digits and
+	 * highest trackable value to this one.
+	 */
+	public void merge(LogLinearHistogram other) {
+		if(other.significantDigits != significantDigits
+				|| other.highestTrackableValue != highestTrackableValue) {
+			throw new IllegalArgumentException("Cannot merge histograms with different bucketing");
+		}
+		for(int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+			if(counts[i] > maxBarCount) {
+				maxBarCount = counts[i];
+			}
+		}
+		bucketSums.reset(counts);
+		totalCount += other.totalCount;
+		maxValue = Math.max(maxValue, other.maxValue);
+		version++;
+	}
+
+	/**
+	 * Upper bound of the bytes encodeInto writes for this histogram.
+	 */
+	public int getMaxEncodedSize() {
+		return Integer.BYTES + 3 * 5 + CountsCodec.maxEncodedSize(counts.length);
+	}
+
+	/**
+	 * Writes the bucket counts in a compact form: varint counts with runs of
+	 * empty buckets collapsed.
+	 */
+	public void encodeInto(ByteBuffer buffer) {
+		buffer.putInt(ENCODING_COOKIE);
+		CountsCodec.putVarint(buffer, significantDigits);
+		CountsCodec.putVarint(buffer, highestTrackableValue);
+		CountsCodec.putZigZag(buffer, maxValue);
+		CountsCodec.encodeInto(buffer, counts);
+	}
+
+	public static LogLinearHistogram decodeFrom(ByteBuffer buffer) {
+		if(buffer.getInt() != ENCODING_COOKIE) {
+			throw new IllegalArgumentException("Not an encoded LogLinearHistogram");
+		}
+		int significantDigits = CountsCodec.getVarint(buffer);
+		int highestTrackableValue = CountsCodec.getVarint(buffer);
+		LogLinearHistogram histogram = new LogLinearHistogram(significantDigits, highestTrackableValue);
+		histogram.maxValue = CountsCodec.getZigZag(buffer);
+		CountsCodec.decodeFrom(buffer, histogram.counts);
+		histogram.bucketSums.reset(histogram.counts);
+		for(int count : histogram.counts) {
+			histogram.totalCount += count;
+			histogram.maxBarCount = Math.max(histogram.maxBarCount, count);
+		}
+		return histogram;
+	}
+
+	/**
+	 * Bars run from 0 up to the sub-bucket holding the largest recorded value.
+	 */
+	public int getNumberBars() {
+		if(maxValue < 0) {
+			return 0;
+		}
+		return getBarIndex(maxValue) + 1;
+	}
+
+	public int getSignificantDigits() {
+		return significantDigits;
+	}
+
+	public int getHighestTrackableValue() {
+		return highestTrackableValue;
+	}
+
+	public int getTotalCount() {
+		return totalCount;
+	}
+
+	// -1 when nothing has been recorded
+	public int getMaxValue() {
+		return maxValue;
+	}
+
+	// number of int counters allocated, independent of how many values are recorded
+	public int getBucketArrayLength() {
+		return counts.length;
+	}
+
+	public Iterator<Histogram.Bar> iterator() {
+		return new BarIterator(this);
+	}
+
+	public int getBarCount(int index) {
+		return counts[index];
+	}
+
+	public void forEachBar(IntBarConsumer consumer) {
+		int numberBars = getNumberBars();
+		for(int i = 0; i < numberBars; i++) {
+			consumer.accept(i, getBarRangeMin(i), getBarRangeMax(i), counts[i]);
+		}
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Statistics interpolated from the bars, kept until the next change.
+	 */
+	public HistogramStatistics getStatistics() {
+		long currentVersion = getVersion();
+		if(statistics == null || statistics.getVersion() != currentVersion) {
+			statistics = HistogramStatistics.fromBars(this);
+		}
+		return statistics;
+	}
+
+	/**
+	 * Estimated number of values less than or equal to value: the sub-buckets
+	 * below value's sub-bucket, plus a share of its own as if the values in it
+	 * were spread evenly up to the sub-bucket end or the largest value.
+	 */
+	public int rank(int value) {
+		if(value < 0) {
+			return 0;
+		}
+		if(value >= maxValue) {
+			return totalCount;
+		}
+		int index = getBarIndex(value);
+		int bucketMin = getBarRangeMin(index);
+		int bucketMax = Math.min(getBarRangeMax(index), maxValue);
+		long share = (long) counts[index] * (value - bucketMin + 1) / (bucketMax - bucketMin + 1);
+		return bucketSums.prefixSum(index) + (int) share;
+	}
+
+	/**
+	 * Estimated number of values from lo to hi, both included.
+	 */
+	public int countBetween(int lo, int hi) {
+		if(lo > hi) {
+			throw new IllegalArgumentException("lo is greater than hi");
+		}
+		return rank(hi) - (lo <= 0 ? 0 : rank(lo - 1));
+	}
+
+	/**
+	 * Estimated fraction of the values less than or equal to value.
+	 */
+	public double cdf(int value) {
+		if(totalCount == 0) {
+			throw new IllegalStateException("No values recorded");
+		}
+		return (double) rank(value) / totalCount;
+	}
+
+	// counts only grow between resets, so the max is kept up to date while recording
+	public int getMaxBarCount() {
+		return maxBarCount;
+	}
+}
@@ -0,0 +1,173 @@
+package histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit Test class for the LogLinearHistogram class.
+ */
+public class LogLinearHistogramTest extends TestCase {
+
+	public void testSingleUnitResolutionForSmallValues() {
+		LogLinearHistogram hist = new LogLinearHistogram(2);
+		for(int value = 0; value < 200; value++) {
+			int index = hist.getBarIndex(value);
+			assertEquals(value, hist.getBarRangeMin(index));
+			assertEquals(value, hist.getBarRangeMax(index));
+		}
+	}
+
+	public void testBarRangesContainValue() {
+		LogLinearHistogram hist = new LogLinearHistogram(3);
+		Random random = new Random(7);
+		for(int i = 0; i < 100000; i++) {
+			int value = random.nextInt(Integer.MAX_VALUE);
+			int index = hist.getBarIndex(value);
+			int rangeMin = hist.getBarRangeMin(index);
+			int rangeMax = hist.getBarRangeMax(index);
+			assertTrue(rangeMin <= value && value <= rangeMax);
+			// width of a sub-bucket stays within the requested precision
+			assertTrue((rangeMax - rangeMin) <= Math.max(value / 1000, 1));
+		}
+		int last = hist.getBarIndex(Integer.MAX_VALUE);
+		assertTrue(last < hist.getBucketArrayLength());
+		assertEquals(Integer.MAX_VALUE, hist.getBarRangeMax(last));
+	}
+
+	public void testBarsAreContiguous() {
+		LogLinearHistogram hist = new LogLinearHistogram(1, 100000);
+		hist.recordAll(new int[] {1, 10, 100, 1000, 10000, 100000});
+		int expectedMin = 0;
+		int total = 0;
+		for(Histogram.Bar bar : hist) {
+			assertEquals(expectedMin, bar.getRangeMin());
+			expectedMin = bar.getRangeMax() + 1;
+			total += bar.getCount();
+		}
+		assertEquals(6, total);
+		assertEquals(hist.getBarIndex(100000) + 1, hist.getNumberBars());
+	}
+
+	public void testFixedFootprint() {
+		LogLinearHistogram hist = new LogLinearHistogram(2, 10000000);
+		int length = hist.getBucketArrayLength();
+		for(int i = 0; i < 100000; i++) {
+			hist.record(i * 100);
+		}
+		assertEquals(length, hist.getBucketArrayLength());
+		assertEquals(100000, hist.getTotalCount());
+	}
+
+	public void testFailRecord() {
+		LogLinearHistogram hist = new LogLinearHistogram(2, 1000);
+		try {
+			hist.record(-1);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+		try {
+			hist.record(hist.getHighestTrackableValue() + 1);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+		try {
+			new LogLinearHistogram(6);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+	}
+
+	public void testEncodeDecodeMerge() {
+		LogLinearHistogram first = new LogLinearHistogram(2, 1000000);
+		first.recordAll(new int[] {1, 10, 100, 1000, 10000, 100000});
+		LogLinearHistogram second = new LogLinearHistogram(2, 1000000);
+		second.recordAll(new int[] {10, 10, 999999});
+
+		ByteBuffer buffer = ByteBuffer.allocate(first.getMaxEncodedSize());
+		first.encodeInto(buffer);
+		assertTrue(buffer.position() < 64);
+		buffer.flip();
+		LogLinearHistogram decoded = LogLinearHistogram.decodeFrom(buffer);
+		assertEquals(first.getNumberBars(), decoded.getNumberBars());
+		for(int i = 0; i < first.getNumberBars(); i++) {
+			assertEquals(first.getBarCount(i), decoded.getBarCount(i));
+		}
+
+		decoded.merge(second);
+		assertEquals(9, decoded.getTotalCount());
+		assertEquals(3, decoded.getBarCount(decoded.getBarIndex(10)));
+		assertEquals(3, decoded.getMaxBarCount());
+		assertEquals(999999, decoded.getMaxValue());
+
+		try {
+			decoded.merge(new LogLinearHistogram(3, 1000000));
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+	}
+
+	public void testRangeQueries() {
+		// below 200, two digits give every value its own sub-bucket, so answers are exact
+		Random random = new Random(25);
+		int[] small = new int[2000];
+		for(int i = 0; i < small.length; i++) {
+			small[i] = random.nextInt(200);
+		}
+		LogLinearHistogram hist = new LogLinearHistogram(2, 1000000);
+		hist.recordAll(small);
+		Histogram expected = new Histogram(small, 10);
+		for(int value = -1; value <= 200; value++) {
+			assertEquals(expected.rank(value), hist.rank(value));
+		}
+		assertEquals(expected.countBetween(17, 150), hist.countBetween(17, 150));
+		assertEquals(expected.cdf(99), hist.cdf(99), 0);
+
+		// larger values are spread evenly over their sub-bucket
+		int[] large = new int[5000];
+		for(int i = 0; i < large.length; i++) {
+			large[i] = random.nextInt(1000000);
+		}
+		hist.recordAll(large);
+		int[] all = new int[small.length + large.length];
+		System.arraycopy(small, 0, all, 0, small.length);
+		System.arraycopy(large, 0, all, small.length, large.length);
+		expected = new Histogram(all, 10);
+		for(int value = 0; value < 1000000; value += 9973) {
+			int index = hist.getBarIndex(value);
+			// off by at most the values sharing the sub-bucket
+			assertTrue(Math.abs(expected.rank(value) - hist.rank(value)) <= hist.getBarCount(index));
+		}
+		assertEquals(all.length, hist.countBetween(Integer.MIN_VALUE, Integer.MAX_VALUE));
+
+		// queries follow merge, decode and reset
+		LogLinearHistogram other = new LogLinearHistogram(2, 1000000);
+		other.recordAll(new int[] {5, 5, 5});
+		hist.merge(other);
+		assertEquals(expected.countBetween(5, 5) + 3, hist.countBetween(5, 5));
+		ByteBuffer buffer = ByteBuffer.allocate(hist.getMaxEncodedSize());
+		hist.encodeInto(buffer);
+		buffer.flip();
+		LogLinearHistogram decoded = LogLinearHistogram.decodeFrom(buffer);
+		assertEquals(hist.rank(123456), decoded.rank(123456));
+		hist.reset();
+		assertEquals(0, hist.rank(1000000));
+		try {
+			hist.cdf(0);
+			fail();
+		} catch(IllegalStateException e) {
+			assertTrue(true);
+		}
+		try {
+			decoded.countBetween(2, 1);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+	}
+}
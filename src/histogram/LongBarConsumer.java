@@ -0,0 +1,8 @@
+package histogram;
+
+/**
+ * Callback for visiting the bars of a LongHistogram without creating objects.
+ */
+public interface LongBarConsumer {
+	void accept(int index, long rangeMin, long rangeMax, long count);
+}
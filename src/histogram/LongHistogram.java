@@ -0,0 +1,159 @@
+package histogram;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of long values with long counts, for data sets with more than
+ * 2^31 values or with negative values such as deltas and offsets.
+ *
+ * The bars split a fixed domain [min, max] into equal widths. The width is the
+ * smallest one that covers the domain with the requested number of bars, and
+ * the last bar ends at max, so a small domain can give fewer bars than asked
+ * for. Offsets from min are handled as unsigned longs, so any domain up to
+ * Long.MIN_VALUE to Long.MAX_VALUE works without overflow.
+ */
+public class LongHistogram implements ValueRecorder {
+
+	private final long min;
+	private final long max;
+	// unsigned; 0 stands for 2^64, a single bar over the whole long range
+	private final long barRange;
+	private final long[] counts;
+	private long totalCount = 0;
+	private long maxBarCount = 0;
+	private long version;
+
+	public LongHistogram(long min, long max, int numberBars) {
+		if(min > max) {
+			throw new IllegalArgumentException("min is greater than max");
+		}
+		if(numberBars < 1) {
+			throw new IllegalArgumentException("Number of Bars is less than 1");
+		}
+		this.min = min;
+		this.max = max;
+		long span = max - min;
+		// add 1 to include starting min
+		this.barRange = Long.divideUnsigned(span, numberBars) + 1;
+		counts = new long[getBarIndex(max) + 1];
+	}
+
+	/**
+	 * Index of the bar the value is counted in.
+	 */
+	public int getBarIndex(long value) {
+		if(value < min || value > max) {
+			throw new IllegalArgumentException("Value " + value + " is outside [" + min + ", " + max + "]");
+		}
+		if(barRange == 0) {
+			return 0;
+		}
+		return (int) Long.divideUnsigned(value - min, barRange);
+	}
+
+	public void record(int value) {
+		record((long) value, 1);
+	}
+
+	public void record(long value) {
+		record(value, 1);
+	}
+
+	/**
+	 * Records the value count times.
+	 */
+	public void record(long value, long count) {
+		if(count < 0) {
+			throw new IllegalArgumentException("count is less than 0");
+		}
+		int index = getBarIndex(value);
+		long barCount = counts[index] + count;
+		counts[index] = barCount;
+		if(barCount > maxBarCount) {
+			maxBarCount = barCount;
+		}
+		totalCount += count;
+		version++;
+	}
+
+	public void recordAll(long[] values) {
+		if(values == null) {
+			throw new IllegalArgumentException("values is null");
+		}
+		for(long value : values) {
+			record(value, 1);
+		}
+	}
+
+	public void reset() {
+		Arrays.fill(counts, 0);
+		totalCount = 0;
+		maxBarCount = 0;
+		version++;
+	}
+
+	/**
+	 * Adds the counts of another histogram with the same domain and bars to this one.
+	 */
+	public void merge(LongHistogram other) {
+		if(other.min != min || other.max != max || other.barRange != barRange) {
+			throw new IllegalArgumentException("Cannot merge histograms with different bars");
+		}
+		for(int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+			if(counts[i] > maxBarCount) {
+				maxBarCount = counts[i];
+			}
+		}
+		totalCount += other.totalCount;
+		version++;
+	}
+
+	public int getNumberBars() {
+		return counts.length;
+	}
+
+	public long getBarCount(int index) {
+		return counts[index];
+	}
+
+	public long getBarRangeMin(int index) {
+		if(index < 0 || index >= counts.length) {
+			throw new IndexOutOfBoundsException("Bar index " + index);
+		}
+		return min + index * barRange;
+	}
+
+	public long getBarRangeMax(int index) {
+		if(index == counts.length - 1) {
+			return max;
+		}
+		return getBarRangeMin(index) + barRange - 1;
+	}
+
+	public void forEachBar(LongBarConsumer consumer) {
+		for(int i = 0; i < counts.length; i++) {
+			consumer.accept(i, getBarRangeMin(i), getBarRangeMax(i), counts[i]);
+		}
+	}
+
+	public long getMaxBarCount() {
+		return maxBarCount;
+	}
+
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	public long getMin() {
+		return min;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+}
@@ -0,0 +1,91 @@
+package histogram;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit Test class for the LongHistogram class.
+ */
+public class LongHistogramTest extends TestCase {
+
+	public void testNegativeDomain() {
+		LongHistogram hist = new LongHistogram(-10, 9, 4);
+		hist.recordAll(new long[] {-10, -6, -5, 0, 4, 9, 9});
+		assertEquals(4, hist.getNumberBars());
+		assertEquals(-10, hist.getBarRangeMin(0));
+		assertEquals(-6, hist.getBarRangeMax(0));
+		assertEquals(2, hist.getBarCount(0));
+		assertEquals(1, hist.getBarCount(1));
+		assertEquals(2, hist.getBarCount(2));
+		assertEquals(2, hist.getBarCount(3));
+		assertEquals(9, hist.getBarRangeMax(3));
+		assertEquals(7, hist.getTotalCount());
+	}
+
+	public void testBarsCoverDomainExactly() {
+		LongHistogram hist = new LongHistogram(0, 9, 6);
+		// width 2 covers the domain with 5 bars
+		assertEquals(5, hist.getNumberBars());
+		long expectedMin = 0;
+		for(int i = 0; i < hist.getNumberBars(); i++) {
+			assertEquals(expectedMin, hist.getBarRangeMin(i));
+			expectedMin = hist.getBarRangeMax(i) + 1;
+		}
+		assertEquals(10, expectedMin);
+	}
+
+	public void testFullLongRange() {
+		LongHistogram hist = new LongHistogram(Long.MIN_VALUE, Long.MAX_VALUE, 4);
+		hist.record(Long.MIN_VALUE);
+		hist.record(-1L);
+		hist.record(0L);
+		hist.record(Long.MAX_VALUE);
+		assertEquals(4, hist.getNumberBars());
+		for(int i = 0; i < 4; i++) {
+			assertEquals(1, hist.getBarCount(i));
+		}
+		assertEquals(Long.MIN_VALUE, hist.getBarRangeMin(0));
+		assertEquals(-1L, hist.getBarRangeMax(1));
+		assertEquals(Long.MAX_VALUE, hist.getBarRangeMax(3));
+
+		LongHistogram single = new LongHistogram(Long.MIN_VALUE, Long.MAX_VALUE, 1);
+		single.record(Long.MAX_VALUE);
+		single.record(Long.MIN_VALUE);
+		assertEquals(1, single.getNumberBars());
+		assertEquals(2, single.getBarCount(0));
+	}
+
+	public void testCountsBeyondInt() {
+		LongHistogram hist = new LongHistogram(0, 100, 10);
+		hist.record(50L, 3000000000L);
+		hist.record(50L, 3000000000L);
+		assertEquals(6000000000L, hist.getBarCount(hist.getBarIndex(50)));
+		assertEquals(6000000000L, hist.getMaxBarCount());
+
+		LongHistogram other = new LongHistogram(0, 100, 10);
+		other.record(50L);
+		hist.merge(other);
+		assertEquals(6000000001L, hist.getTotalCount());
+	}
+
+	public void testFailRecord() {
+		LongHistogram hist = new LongHistogram(-5, 5, 2);
+		try {
+			hist.record(6L);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+		try {
+			new LongHistogram(5, -5, 2);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+		try {
+			hist.merge(new LongHistogram(-5, 5, 3));
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+	}
+}
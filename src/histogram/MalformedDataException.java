@@ -0,0 +1,20 @@
+package histogram;
+
+/**
+ * Thrown when text input cannot be read as a list of integers. Carries the
+ * position (in characters, or bytes for byte input) of the offending input.
+ */
+public class MalformedDataException extends NumberFormatException {
+	private static final long serialVersionUID = 1L;
+
+	private final long position;
+
+	public MalformedDataException(String message, long position) {
+		super(message + " at position " + position);
+		this.position = position;
+	}
+
+	public long getPosition() {
+		return position;
+	}
+}
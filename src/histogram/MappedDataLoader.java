@@ -0,0 +1,133 @@
+package histogram;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builds a histogram from a binary file of 32-bit int samples without reading
+ * it onto the heap. The file is memory-mapped in chunks (a single mapping is
+ * limited to 2 GB) and every value is recorded straight into a
+ * StreamingHistogram, so no int[] of the data is ever built.
+ *
+ * With loadParallel every chunk is recorded into its own histogram by a
+ * fork-join task and the results are merged.
+ */
+public class MappedDataLoader {
+
+	public static final long DEFAULT_CHUNK_SIZE = 256L << 20;
+
+	private final ByteOrder byteOrder;
+	private final long chunkSize;
+
+	public MappedDataLoader() {
+		this(ByteOrder.LITTLE_ENDIAN, DEFAULT_CHUNK_SIZE);
+	}
+
+	public MappedDataLoader(ByteOrder byteOrder, long chunkSize) {
+		if(byteOrder == null) {
+			throw new IllegalArgumentException("byteOrder is null");
+		}
+		if(chunkSize < Integer.BYTES || chunkSize > Integer.MAX_VALUE || chunkSize % Integer.BYTES != 0) {
+			throw new IllegalArgumentException("chunkSize must be a multiple of 4 bytes below 2 GB");
+		}
+		this.byteOrder = byteOrder;
+		this.chunkSize = chunkSize;
+	}
+
+	public StreamingHistogram load(Path file, int numberBars) throws IOException {
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = checkSize(channel);
+			StreamingHistogram histogram = new StreamingHistogram(numberBars);
+			for(long position = 0; position < size; position += chunkSize) {
+				recordChunk(channel, position, Math.min(chunkSize, size - position), histogram);
+			}
+			return histogram;
+		}
+	}
+
+	public StreamingHistogram loadParallel(Path file, int numberBars) throws IOException {
+		return loadParallel(file, numberBars, ForkJoinPool.commonPool());
+	}
+
+	public StreamingHistogram loadParallel(Path file, int numberBars, ForkJoinPool pool) throws IOException {
+		if(pool == null) {
+			throw new IllegalArgumentException("pool is null");
+		}
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = checkSize(channel);
+			int chunks = (int) ((size + chunkSize - 1) / chunkSize);
+			if(chunks == 0) {
+				return new StreamingHistogram(numberBars);
+			}
+			try {
+				return pool.invoke(new ChunkTask(channel, size, 0, chunks, numberBars));
+			} catch(UncheckedIOException e) {
+				throw e.getCause();
+			}
+		}
+	}
+
+	private long checkSize(FileChannel channel) throws IOException {
+		long size = channel.size();
+		if(size % Integer.BYTES != 0) {
+			throw new IllegalArgumentException("File length is not a multiple of 4 bytes");
+		}
+		return size;
+	}
+
+	private void recordChunk(FileChannel channel, long position, long length,
+			StreamingHistogram histogram) throws IOException {
+		MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+		IntBuffer values = chunk.order(byteOrder).asIntBuffer();
+		int count = values.remaining();
+		for(int i = 0; i < count; i++) {
+			histogram.record(values.get(i));
+		}
+	}
+
+	private final class ChunkTask extends RecursiveTask<StreamingHistogram> {
+		private static final long serialVersionUID = 1L;
+
+		private final FileChannel channel;
+		private final long size;
+		private final int fromChunk;
+		private final int toChunk;
+		private final int numberBars;
+
+		ChunkTask(FileChannel channel, long size, int fromChunk, int toChunk, int numberBars) {
+			this.channel = channel;
+			this.size = size;
+			this.fromChunk = fromChunk;
+			this.toChunk = toChunk;
+			this.numberBars = numberBars;
+		}
+
+		@Override
+		protected StreamingHistogram compute() {
+			if(toChunk - fromChunk == 1) {
+				StreamingHistogram histogram = new StreamingHistogram(numberBars);
+				long position = fromChunk * chunkSize;
+				try {
+					recordChunk(channel, position, Math.min(chunkSize, size - position), histogram);
+				} catch(IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				return histogram;
+			}
+			int mid = (fromChunk + toChunk) >>> 1;
+			ChunkTask left = new ChunkTask(channel, size, fromChunk, mid, numberBars);
+			left.fork();
+			StreamingHistogram histogram = new ChunkTask(channel, size, mid, toChunk, numberBars).compute();
+			histogram.merge(left.join());
+			return histogram;
+		}
+	}
+}
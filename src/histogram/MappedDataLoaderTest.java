@@ -0,0 +1,99 @@
+package histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit Test class for the MappedDataLoader class.
+ */
+public class MappedDataLoaderTest extends TestCase {
+
+	private File file;
+
+	@Override
+	protected void setUp() throws IOException {
+		file = File.createTempFile("histogram", ".bin");
+	}
+
+	@Override
+	protected void tearDown() {
+		file.delete();
+	}
+
+	private void write(int[] values, ByteOrder byteOrder) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(values.length * Integer.BYTES).order(byteOrder);
+		buffer.asIntBuffer().put(values);
+		Files.write(file.toPath(), buffer.array());
+	}
+
+	private void assertSameBars(StreamingHistogram expected, StreamingHistogram given) {
+		assertEquals(expected.getTotalCount(), given.getTotalCount());
+		assertEquals(expected.getMaxValue(), given.getMaxValue());
+		assertEquals(expected.getNumberBars(), given.getNumberBars());
+		for(int i = 0; i < expected.getNumberBars(); i++) {
+			assertEquals(expected.getBarCount(i), given.getBarCount(i));
+			assertEquals(expected.getBarRangeMin(i), given.getBarRangeMin(i));
+		}
+	}
+
+	public void testLoadInChunks() throws IOException {
+		int[] values = new int[10000];
+		Random random = new Random(11);
+		for(int i = 0; i < values.length; i++) {
+			values[i] = random.nextInt(1000);
+		}
+		write(values, ByteOrder.LITTLE_ENDIAN);
+		StreamingHistogram expected = new StreamingHistogram(7);
+		expected.recordAll(values);
+
+		// chunk size that does not divide the file evenly
+		MappedDataLoader loader = new MappedDataLoader(ByteOrder.LITTLE_ENDIAN, 4 * 333);
+		assertSameBars(expected, loader.load(file.toPath(), 7));
+
+		ForkJoinPool pool = new ForkJoinPool(3);
+		try {
+			assertSameBars(expected, loader.loadParallel(file.toPath(), 7, pool));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	public void testByteOrder() throws IOException {
+		write(new int[] {1, 2, 3, 300}, ByteOrder.BIG_ENDIAN);
+		StreamingHistogram hist = new MappedDataLoader(ByteOrder.BIG_ENDIAN, 1024).load(file.toPath(), 3);
+		assertEquals(300, hist.getMaxValue());
+		assertEquals(3, hist.getBarCount(0));
+		assertEquals(1, hist.getBarCount(2));
+	}
+
+	public void testEmptyFile() throws IOException {
+		write(new int[] {}, ByteOrder.LITTLE_ENDIAN);
+		assertEquals(0, new MappedDataLoader().load(file.toPath(), 2).getTotalCount());
+		assertEquals(0, new MappedDataLoader().loadParallel(file.toPath(), 2).getTotalCount());
+	}
+
+	public void testFailLoad() throws IOException {
+		write(new int[] {1, -1}, ByteOrder.LITTLE_ENDIAN);
+		try {
+			new MappedDataLoader().load(file.toPath(), 2);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+
+		Files.write(file.toPath(), new byte[] {1, 2, 3});
+		try {
+			new MappedDataLoader().load(file.toPath(), 2);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+	}
+}
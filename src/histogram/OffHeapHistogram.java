@@ -0,0 +1,186 @@
+package histogram;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * Histogram with equal width bars whose counts live outside the Java heap, for
+ * resolutions with millions of bars. Each bar costs one long in a direct
+ * buffer. Ranges are computed from the index and Bar objects are only created
+ * while iterating, so the heap and the garbage collector never see the bars.
+ *
+ * Bars cover 0 to highestTrackableValue, like a Histogram whose largest value
+ * is highestTrackableValue. close() frees the buffer right away, through
+ * sun.misc.Unsafe.invokeCleaner from the jdk.unsupported module; on a JVM
+ * without that module the memory is returned once the buffer is collected.
+ * Any use after close() throws IllegalStateException, and close() must not
+ * run while another thread still uses the histogram.
+ */
+public class OffHeapHistogram implements HistogramView, ValueRecorder, AutoCloseable {
+	// a direct buffer is indexed by int bytes
+	private static final int MAX_NUMBER_BARS = Integer.MAX_VALUE / Long.BYTES;
+	// null when the buffer can only be left to the garbage collector
+	private static final MethodHandle INVOKE_CLEANER = findInvokeCleaner();
+
+	private final int numberBars;
+	private final int highestTrackableValue;
+	private final int barRange;
+	private final BinningKernel kernel;
+	// the buffer the cleaner belongs to, and the view the counts are read through
+	private ByteBuffer buffer;
+	private LongBuffer counts;
+	private long totalCount = 0;
+	private long maxBarCount = 0;
+	private long version;
+
+	public OffHeapHistogram(int numberBars, int highestTrackableValue) {
+		if(numberBars < 1 || numberBars > MAX_NUMBER_BARS) {
+			throw new IllegalArgumentException("Number of Bars is not between 1 and " + MAX_NUMBER_BARS);
+		}
+		if(highestTrackableValue < 0) {
+			throw new IllegalArgumentException("highestTrackableValue is less than 0");
+		}
+		this.numberBars = numberBars;
+		this.highestTrackableValue = highestTrackableValue;
+		// add 1 to include starting 0
+		this.barRange = (highestTrackableValue / numberBars) + 1;
+		this.kernel = BinningKernel.forBarRange(barRange);
+		this.buffer = ByteBuffer.allocateDirect(numberBars * Long.BYTES).order(ByteOrder.nativeOrder());
+		this.counts = buffer.asLongBuffer();
+	}
+
+	private static MethodHandle findInvokeCleaner() {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			return MethodHandles.lookup()
+					.findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+					.bindTo(theUnsafe.get(null));
+		} catch(ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	public void record(int value) {
+		if(value < 0 || value > highestTrackableValue) {
+			throw new IllegalArgumentException("Invalid data: " + value);
+		}
+		LongBuffer counts = openCounts();
+		int bar = kernel.barIndex(value);
+		long count = counts.get(bar) + 1;
+		counts.put(bar, count);
+		if(count > maxBarCount) {
+			maxBarCount = count;
+		}
+		totalCount++;
+		version++;
+	}
+
+	public void recordAll(int[] values) {
+		if(values == null) {
+			throw new IllegalArgumentException("values is null");
+		}
+		for(int value : values) {
+			record(value);
+		}
+	}
+
+	private LongBuffer openCounts() {
+		if(counts == null) {
+			throw new IllegalStateException("Histogram is closed");
+		}
+		return counts;
+	}
+
+	public int getNumberBars() {
+		return numberBars;
+	}
+
+	public long getBarCountLong(int index) {
+		Objects.checkIndex(index, numberBars);
+		return openCounts().get(index);
+	}
+
+	// counts above Integer.MAX_VALUE are reported as Integer.MAX_VALUE, see getBarCountLong
+	public int getBarCount(int index) {
+		return (int) Math.min(getBarCountLong(index), Integer.MAX_VALUE);
+	}
+
+	public int getBarRangeMin(int index) {
+		if(index < 0 || index >= numberBars) {
+			throw new IndexOutOfBoundsException("Bar index " + index);
+		}
+		return index * barRange;
+	}
+
+	public int getBarRangeMax(int index) {
+		return getBarRangeMin(index) + barRange - 1;
+	}
+
+	public int getMaxBarCount() {
+		openCounts();
+		return (int) Math.min(maxBarCount, Integer.MAX_VALUE);
+	}
+
+	public void forEachBar(IntBarConsumer consumer) {
+		LongBuffer counts = openCounts();
+		int rangeMin = 0;
+		for(int i = 0; i < numberBars; i++) {
+			long count = counts.get(i);
+			consumer.accept(i, rangeMin, rangeMin + barRange - 1, (int) Math.min(count, Integer.MAX_VALUE));
+			rangeMin += barRange;
+		}
+	}
+
+	public Iterator<Histogram.Bar> iterator() {
+		openCounts();
+		return new BarIterator(this);
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	// whether close() frees the buffer itself rather than leaving it to the garbage collector
+	static boolean isFreedOnClose() {
+		return INVOKE_CLEANER != null;
+	}
+
+	public boolean isClosed() {
+		return counts == null;
+	}
+
+	/**
+	 * Frees the memory of the bars. Closing twice does nothing.
+	 */
+	@Override
+	public void close() {
+		if(counts == null) {
+			return;
+		}
+		ByteBuffer freed = buffer;
+		// dropped first, so nothing reaches the memory once it is freed
+		counts = null;
+		buffer = null;
+		version++;
+		if(INVOKE_CLEANER != null) {
+			try {
+				INVOKE_CLEANER.invokeExact(freed);
+			} catch(Throwable e) {
+				throw new IllegalStateException("Could not free the bars", e);
+			}
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package histogram;
+
+import java.util.Iterator;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit Test class for the OffHeapHistogram class.
+ */
+public class OffHeapHistogramTest extends TestCase {
+
+	public void testMatchesHistogram() {
+		int[] data = new int[] {0, 5, 6, 7, 8, 14, 14};
+		Histogram expected = new Histogram(data, 5);
+		try(OffHeapHistogram offHeap = new OffHeapHistogram(5, 14)) {
+			offHeap.recordAll(data);
+			Iterator<Histogram.Bar> expectedBars = expected.iterator();
+			for(Histogram.Bar bar : offHeap) {
+				Histogram.Bar expectedBar = expectedBars.next();
+				assertEquals(expectedBar.getRangeMin(), bar.getRangeMin());
+				assertEquals(expectedBar.getRangeMax(), bar.getRangeMax());
+				assertEquals(expectedBar.getCount(), bar.getCount());
+			}
+			assertFalse(expectedBars.hasNext());
+			assertEquals(expected.getMaxBarCount(), offHeap.getMaxBarCount());
+			assertEquals(7, offHeap.getTotalCount());
+		}
+	}
+
+	public void testMillionsOfBars() {
+		try(OffHeapHistogram hist = new OffHeapHistogram(4000000, 3999999)) {
+			hist.record(3999999);
+			hist.record(0);
+			hist.record(0);
+			int last = hist.getNumberBars() - 1;
+			assertEquals(1, hist.getBarCount(last));
+			assertEquals(3999999, hist.getBarRangeMin(last));
+			assertEquals(3999999, hist.getBarRangeMax(last));
+			assertEquals(2, hist.getBarCount(0));
+			assertEquals(2, hist.getMaxBarCount());
+		}
+	}
+
+	public void testClosed() {
+		OffHeapHistogram hist = new OffHeapHistogram(3, 10);
+		hist.record(1);
+		long version = hist.getVersion();
+		hist.close();
+		assertTrue(hist.isClosed());
+		assertTrue(hist.getVersion() != version);
+		try {
+			hist.record(1);
+			fail();
+		} catch(IllegalStateException e) {
+			assertTrue(true);
+		}
+		try {
+			hist.getBarCount(0);
+			fail();
+		} catch(IllegalStateException e) {
+			assertTrue(true);
+		}
+		hist.close();
+		assertTrue(hist.isClosed());
+		assertTrue(OffHeapHistogram.isFreedOnClose());
+	}
+
+	public void testReadOnOtherThread() throws InterruptedException {
+		final OffHeapHistogram hist = new OffHeapHistogram(3, 10);
+		hist.record(9);
+		final long[] count = new long[1];
+		Thread reader = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				count[0] = hist.getBarCountLong(2);
+			}
+		});
+		reader.start();
+		reader.join();
+		assertEquals(1, count[0]);
+		hist.close();
+	}
+
+	public void testFailRecord() {
+		try(OffHeapHistogram hist = new OffHeapHistogram(3, 10)) {
+			hist.record(11);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+		try {
+			new OffHeapHistogram(0, 10);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+	}
+}
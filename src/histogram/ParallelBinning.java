@@ -0,0 +1,114 @@
+package histogram;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork-join helpers for building a histogram from a large array. The array is
+ * split into slices, every task counts its slice into its own count array,
+ * and the arrays are added together on the way back up, so tasks never share
+ * a counter.
+ */
+final class ParallelBinning {
+
+	// below this many values a slice is not worth splitting further
+	private static final int MIN_SLICE_LENGTH = 1 << 15;
+
+	private ParallelBinning() {
+	}
+
+	/**
+	 * Checks every value is non-negative and returns the largest value, or -1
+	 * for an empty array.
+	 */
+	static int checkData(int[] integerList, ForkJoinPool pool) {
+		return pool.invoke(new MaxTask(integerList, 0, integerList.length, sliceLength(integerList, pool)));
+	}
+
+	static int[] countBars(int[] integerList, int barRange, int numberBars, ForkJoinPool pool) {
+		return pool.invoke(new CountTask(integerList, 0, integerList.length, BinningKernel.forBarRange(barRange),
+				numberBars, sliceLength(integerList, pool)));
+	}
+
+	// a few slices per worker so uneven slices still keep every worker busy
+	private static int sliceLength(int[] integerList, ForkJoinPool pool) {
+		int slices = pool.getParallelism() * 4;
+		return Math.max(MIN_SLICE_LENGTH, integerList.length / slices);
+	}
+
+	private static final class MaxTask extends RecursiveTask<Integer> {
+		private static final long serialVersionUID = 1L;
+
+		private final int[] integerList;
+		private final int from;
+		private final int to;
+		private final int sliceLength;
+
+		MaxTask(int[] integerList, int from, int to, int sliceLength) {
+			this.integerList = integerList;
+			this.from = from;
+			this.to = to;
+			this.sliceLength = sliceLength;
+		}
+
+		@Override
+		protected Integer compute() {
+			if(to - from <= sliceLength) {
+				int max = -1;
+				int min = 0;
+				for(int i = from; i < to; i++) {
+					int integer = integerList[i];
+					max = Math.max(max, integer);
+					min = Math.min(min, integer);
+				}
+				if(min < 0) {
+					throw new IllegalArgumentException("Invalid data in integerList");
+				}
+				return max;
+			}
+			int mid = (from + to) >>> 1;
+			MaxTask left = new MaxTask(integerList, from, mid, sliceLength);
+			left.fork();
+			int rightMax = new MaxTask(integerList, mid, to, sliceLength).compute();
+			return Math.max(left.join(), rightMax);
+		}
+	}
+
+	private static final class CountTask extends RecursiveTask<int[]> {
+		private static final long serialVersionUID = 1L;
+
+		private final int[] integerList;
+		private final int from;
+		private final int to;
+		private final BinningKernel kernel;
+		private final int numberBars;
+		private final int sliceLength;
+
+		CountTask(int[] integerList, int from, int to, BinningKernel kernel, int numberBars, int sliceLength) {
+			this.integerList = integerList;
+			this.from = from;
+			this.to = to;
+			this.kernel = kernel;
+			this.numberBars = numberBars;
+			this.sliceLength = sliceLength;
+		}
+
+		@Override
+		protected int[] compute() {
+			if(to - from <= sliceLength) {
+				int[] integerCountList = new int[numberBars];
+				kernel.count(integerList, from, to, integerCountList);
+				return integerCountList;
+			}
+			int mid = (from + to) >>> 1;
+			CountTask left = new CountTask(integerList, from, mid, kernel, numberBars, sliceLength);
+			left.fork();
+			int[] integerCountList = new CountTask(integerList, mid, to, kernel, numberBars, sliceLength).compute();
+			int[] leftCountList = left.join();
+			for(int i = 0; i < numberBars; i++) {
+				integerCountList[i] += leftCountList[i];
+			}
+			return integerCountList;
+		}
+	}
+}
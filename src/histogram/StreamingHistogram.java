@@ -0,0 +1,387 @@
+package histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Histogram that is built incrementally, one recorded value at a time.
+ *
+ * Values are counted into a fixed number of base buckets whose width is a power
+ * of two. When a value larger than the current buckets can hold is recorded,
+ * neighbouring buckets are merged pairwise and the width doubles, so memory
+ * does not grow with the number of samples. A Fenwick tree over the buckets
+ * keeps range and CDF queries O(log resolution) while values are recorded, at
+ * the same cost for each recorded value. Bars are laid
+ * out the same way as in Histogram (equal width from 0 up to the running max),
+ * with the bar width rounded up to a whole number of base buckets.
+ *
+ * The recorded values themselves are only kept when asked for in the constructor.
+ */
+public class StreamingHistogram implements HistogramView, ValueRecorder {
+
+	public static final int DEFAULT_RESOLUTION = 1024;
+
+	// first bytes of an encoded StreamingHistogram, "SH" plus format version 1
+	private static final int ENCODING_COOKIE = 0x53480001;
+
+	private final int[] baseCounts;
+	private final FenwickTree bucketSums;
+	private int shift = 0;
+	private int maxValue = -1;
+	private int totalCount = 0;
+	private int numberBars;
+
+	// bar view derived from the base buckets, rebuilt on first read after a change
+	private int[] barCounts;
+	private int barRange;
+	private int maxBarCount;
+	private boolean barsDirty = true;
+	private long version;
+	private HistogramStatistics statistics;
+
+	private final boolean retainData;
+	private int[] samples;
+	private int sampleCount = 0;
+
+	public StreamingHistogram(int numberOfBars) {
+		this(numberOfBars, DEFAULT_RESOLUTION, false);
+	}
+
+	public StreamingHistogram(int numberOfBars, boolean retainData) {
+		this(numberOfBars, DEFAULT_RESOLUTION, retainData);
+	}
+
+	public StreamingHistogram(int numberOfBars, int resolution, boolean retainData) {
+		if(resolution < 2 || Integer.bitCount(resolution) != 1) {
+			throw new IllegalArgumentException("resolution must be a power of two greater than 1");
+		}
+		setNumberBars(numberOfBars);
+		this.baseCounts = new int[resolution];
+		this.bucketSums = new FenwickTree(resolution);
+		this.retainData = retainData;
+		if(retainData) {
+			samples = new int[resolution];
+		}
+	}
+
+	// package-private: used by recorders that hand over an already filled set of base buckets
+	StreamingHistogram(int[] baseCounts, int shift, int maxValue, int numberOfBars) {
+		setNumberBars(numberOfBars);
+		this.baseCounts = baseCounts;
+		this.shift = shift;
+		this.maxValue = maxValue;
+		this.retainData = false;
+		for(int count : baseCounts) {
+			totalCount += count;
+		}
+		this.bucketSums = new FenwickTree(baseCounts.length);
+		bucketSums.reset(baseCounts);
+	}
+
+	public void record(int value) {
+		if(value < 0) {
+			throw new IllegalArgumentException("Invalid data: " + value);
+		}
+		if(value > maxValue) {
+			maxValue = value;
+			while((value >>> shift) >= baseCounts.length) {
+				collapse();
+			}
+		}
+		baseCounts[value >>> shift]++;
+		bucketSums.add(value >>> shift, 1);
+		totalCount++;
+		barsDirty = true;
+		version++;
+		if(retainData) {
+			retain(value);
+		}
+	}
+
+	public void recordAll(int[] values) {
+		if(values == null) {
+			throw new IllegalArgumentException("values is null");
+		}
+		for(int value : values) {
+			record(value);
+		}
+	}
+
+	public void reset() {
+		Arrays.fill(baseCounts, 0);
+		bucketSums.reset(baseCounts);
+		shift = 0;
+		maxValue = -1;
+		totalCount = 0;
+		sampleCount = 0;
+		barsDirty = true;
+		version++;
+	}
+
+	/**
+	 * Adds the counts of another histogram with the same resolution to this one.
+	 * Whichever side has the narrower buckets is collapsed to the wider width
+	 * first. A histogram that retains its data can only merge another one that
+	 * does too.
+	 */
+	public void merge(StreamingHistogram other) {
+		if(other == null) {
+			throw new IllegalArgumentException("other is null");
+		}
+		if(other.baseCounts.length != baseCounts.length) {
+			throw new IllegalArgumentException("Cannot merge histograms with different resolutions");
+		}
+		if(retainData && !other.retainData) {
+			throw new IllegalStateException("Recorded values of other histogram are not retained");
+		}
+		while(shift < other.shift) {
+			collapse();
+		}
+		int shiftDifference = shift - other.shift;
+		for(int i = 0; i < other.baseCounts.length; i++) {
+			baseCounts[i >>> shiftDifference] += other.baseCounts[i];
+		}
+		bucketSums.reset(baseCounts);
+		totalCount += other.totalCount;
+		maxValue = Math.max(maxValue, other.maxValue);
+		barsDirty = true;
+		version++;
+		if(retainData) {
+			// read before retaining, as merging with itself grows both
+			int[] otherSamples = other.samples;
+			int otherSampleCount = other.sampleCount;
+			for(int i = 0; i < otherSampleCount; i++) {
+				retain(otherSamples[i]);
+			}
+		}
+	}
+
+	/**
+	 * Upper bound of the bytes encodeInto writes for this histogram.
+	 */
+	public int getMaxEncodedSize() {
+		return Integer.BYTES + 4 * 5 + CountsCodec.maxEncodedSize(baseCounts.length);
+	}
+
+	/**
+	 * Writes the base buckets (not the bars' objects, nor any retained values)
+	 * in a compact form: varint counts with runs of empty buckets collapsed.
+	 */
+	public void encodeInto(ByteBuffer buffer) {
+		buffer.putInt(ENCODING_COOKIE);
+		CountsCodec.putVarint(buffer, baseCounts.length);
+		CountsCodec.putVarint(buffer, shift);
+		CountsCodec.putZigZag(buffer, maxValue);
+		CountsCodec.putVarint(buffer, numberBars);
+		CountsCodec.encodeInto(buffer, baseCounts);
+	}
+
+	public static StreamingHistogram decodeFrom(ByteBuffer buffer) {
+		if(buffer.getInt() != ENCODING_COOKIE) {
+			throw new IllegalArgumentException("Not an encoded StreamingHistogram");
+		}
+		int resolution = CountsCodec.getVarint(buffer);
+		int shift = CountsCodec.getVarint(buffer);
+		int maxValue = CountsCodec.getZigZag(buffer);
+		int numberBars = CountsCodec.getVarint(buffer);
+		if(resolution < 2 || Integer.bitCount(resolution) != 1 || shift < 0 || shift > 31) {
+			throw new IllegalArgumentException("Encoded histogram is corrupt");
+		}
+		int[] baseCounts = new int[resolution];
+		CountsCodec.decodeFrom(buffer, baseCounts);
+		return new StreamingHistogram(baseCounts, shift, maxValue, numberBars);
+	}
+
+	// merge each pair of neighbouring buckets so every bucket covers twice the range
+	private void collapse() {
+		int half = baseCounts.length / 2;
+		for(int i = 0; i < half; i++) {
+			baseCounts[i] = baseCounts[2 * i] + baseCounts[2 * i + 1];
+		}
+		Arrays.fill(baseCounts, half, baseCounts.length, 0);
+		bucketSums.reset(baseCounts);
+		shift++;
+	}
+
+	private void retain(int value) {
+		if(sampleCount == samples.length) {
+			samples = Arrays.copyOf(samples, samples.length * 2);
+		}
+		samples[sampleCount++] = value;
+	}
+
+	public void setNumberBars(int numberOfBars) {
+		if(numberOfBars < 0) {
+			throw new IllegalArgumentException("Number of Bars is less than 0");
+		}
+		this.numberBars = numberOfBars;
+		barsDirty = true;
+		version++;
+	}
+
+	public int getNumberBars() {
+		return numberBars;
+	}
+
+	public int getTotalCount() {
+		return totalCount;
+	}
+
+	// -1 when nothing has been recorded
+	public int getMaxValue() {
+		return maxValue;
+	}
+
+	public int getBucketWidth() {
+		return 1 << shift;
+	}
+
+	private int computeIntervalLength() {
+		if(totalCount == 0) {
+			return 1;
+		}
+		assert numberBars > 0;
+		// add 1 to include starting 0, then round up to whole base buckets
+		int barRange = (maxValue / numberBars) + 1;
+		int bucketWidth = getBucketWidth();
+		return ((barRange + bucketWidth - 1) >>> shift) << shift;
+	}
+
+	private void createBarList() {
+		if(barCounts == null || barCounts.length != numberBars) {
+			barCounts = new int[numberBars];
+		}
+		barRange = computeIntervalLength();
+		int bucketsPerBar = barRange >>> shift;
+		int bucket = 0;
+		int maxCount = Integer.MIN_VALUE;
+		for(int i = 0; i < numberBars; i++) {
+			int count = 0;
+			int end = Math.min(bucket + bucketsPerBar, baseCounts.length);
+			for(; bucket < end; bucket++) {
+				count += baseCounts[bucket];
+			}
+			barCounts[i] = count;
+			if(count > maxCount) {
+				maxCount = count;
+			}
+		}
+		maxBarCount = maxCount;
+		barsDirty = false;
+	}
+
+	private void ensureBars() {
+		if(barsDirty) {
+			createBarList();
+		}
+	}
+
+	public Iterator<Histogram.Bar> iterator() {
+		return new BarIterator(this);
+	}
+
+	public int getBarCount(int index) {
+		ensureBars();
+		return barCounts[index];
+	}
+
+	public int getBarRangeMin(int index) {
+		ensureBars();
+		return index * barRange;
+	}
+
+	public int getBarRangeMax(int index) {
+		ensureBars();
+		return index * barRange + barRange - 1;
+	}
+
+	public void forEachBar(IntBarConsumer consumer) {
+		ensureBars();
+		int rangeMin = 0;
+		for(int i = 0; i < numberBars; i++) {
+			consumer.accept(i, rangeMin, rangeMin + barRange - 1, barCounts[i]);
+			rangeMin += barRange;
+		}
+	}
+
+	public int getMaxBarCount() {
+		ensureBars();
+		return maxBarCount;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Statistics interpolated from the base buckets, kept until the next change.
+	 */
+	public HistogramStatistics getStatistics() {
+		long currentVersion = getVersion();
+		if(statistics == null || statistics.getVersion() != currentVersion) {
+			statistics = HistogramStatistics.fromBuckets(baseCounts, getBucketWidth(), currentVersion);
+		}
+		return statistics;
+	}
+
+	/**
+	 * Estimated number of values less than or equal to value: the buckets
+	 * below value's bucket, plus a share of its own bucket as if the values in
+	 * it were spread evenly up to the bucket end or the largest value.
+	 */
+	public int rank(int value) {
+		if(value < 0) {
+			return 0;
+		}
+		if(value >= maxValue) {
+			return totalCount;
+		}
+		int bucket = value >>> shift;
+		int bucketMin = bucket << shift;
+		int bucketMax = Math.min(bucketMin + getBucketWidth() - 1, maxValue);
+		long share = (long) baseCounts[bucket] * (value - bucketMin + 1) / (bucketMax - bucketMin + 1);
+		return bucketSums.prefixSum(bucket) + (int) share;
+	}
+
+	/**
+	 * Estimated number of values from lo to hi, both included.
+	 */
+	public int countBetween(int lo, int hi) {
+		if(lo > hi) {
+			throw new IllegalArgumentException("lo is greater than hi");
+		}
+		return rank(hi) - (lo <= 0 ? 0 : rank(lo - 1));
+	}
+
+	/**
+	 * Estimated fraction of the values less than or equal to value.
+	 */
+	public double cdf(int value) {
+		if(totalCount == 0) {
+			throw new IllegalStateException("No values recorded");
+		}
+		return (double) rank(value) / totalCount;
+	}
+
+	public boolean isRetainingData() {
+		return retainData;
+	}
+
+	/**
+	 * Iterates over the recorded values in ascending order. Only available when
+	 * the histogram was created with retainData set.
+	 */
+	public Iterator<Integer> getIntegerListIterator() {
+		if(!retainData) {
+			throw new IllegalStateException("Recorded values are not retained");
+		}
+		int[] sorted = Arrays.copyOf(samples, sampleCount);
+		Arrays.sort(sorted);
+		Integer[] boxed = new Integer[sorted.length];
+		for(int i = 0; i < sorted.length; i++) {
+			boxed[i] = sorted[i];
+		}
+		return Arrays.asList(boxed).iterator();
+	}
+}
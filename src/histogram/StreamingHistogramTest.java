@@ -0,0 +1,196 @@
+package histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit Test class for the StreamingHistogram class.
+ */
+public class StreamingHistogramTest extends TestCase {
+
+	private void assertSameBars(Iterable<Histogram.Bar> expected, Iterable<Histogram.Bar> given) {
+		Iterator<Histogram.Bar> expectedBars = expected.iterator();
+		Iterator<Histogram.Bar> givenBars = given.iterator();
+		while(expectedBars.hasNext()) {
+			assertTrue(givenBars.hasNext());
+			Histogram.Bar expectedBar = expectedBars.next();
+			Histogram.Bar givenBar = givenBars.next();
+			assertEquals(expectedBar.getRangeMin(), givenBar.getRangeMin());
+			assertEquals(expectedBar.getRangeMax(), givenBar.getRangeMax());
+			assertEquals(expectedBar.getCount(), givenBar.getCount());
+		}
+		assertFalse(givenBars.hasNext());
+	}
+
+	public void testMatchesHistogramWithinResolution() {
+		int[] data = new int[] {0, 999, 1998, 2997, 3996, 4995, 17, 17, 4000};
+		for(int numberBars = 1; numberBars < 12; numberBars++) {
+			StreamingHistogram streaming = new StreamingHistogram(numberBars, 8192, false);
+			streaming.recordAll(data);
+			assertEquals(1, streaming.getBucketWidth());
+			assertSameBars(new Histogram(data, numberBars), streaming);
+		}
+	}
+
+	public void testCollapseKeepsTotals() {
+		StreamingHistogram hist = new StreamingHistogram(4, 16, false);
+		Random random = new Random(42);
+		int total = 0;
+		for(int i = 0; i < 1000; i++) {
+			hist.record(random.nextInt(100000));
+			total++;
+		}
+		assertEquals(total, hist.getTotalCount());
+		assertTrue(hist.getBucketWidth() > 1);
+		int barTotal = 0;
+		int lastMax = -1;
+		for(Histogram.Bar bar : hist) {
+			assertEquals(lastMax + 1, bar.getRangeMin());
+			lastMax = bar.getRangeMax();
+			barTotal += bar.getCount();
+		}
+		assertEquals(total, barTotal);
+		assertTrue(lastMax >= hist.getMaxValue());
+	}
+
+	public void testEmpty() {
+		StreamingHistogram hist = new StreamingHistogram(3);
+		int bars = 0;
+		for(Histogram.Bar bar : hist) {
+			assertEquals(0, bar.getCount());
+			bars++;
+		}
+		assertEquals(3, bars);
+		assertEquals(-1, hist.getMaxValue());
+	}
+
+	public void testRetainData() {
+		StreamingHistogram hist = new StreamingHistogram(2, 2, true);
+		hist.recordAll(new int[] {5, 3, 9, 1});
+		Iterator<Integer> values = hist.getIntegerListIterator();
+		assertEquals(1, values.next().intValue());
+		assertEquals(3, values.next().intValue());
+		assertEquals(5, values.next().intValue());
+		assertEquals(9, values.next().intValue());
+		assertFalse(values.hasNext());
+
+		try {
+			new StreamingHistogram(2).getIntegerListIterator();
+			fail();
+		} catch(IllegalStateException e) {
+			assertTrue(true);
+		}
+	}
+
+	public void testMergeWithItself() {
+		StreamingHistogram hist = new StreamingHistogram(2, 2, true);
+		hist.recordAll(new int[] {5, 3});
+		hist.merge(hist);
+		assertEquals(4, hist.getTotalCount());
+		Iterator<Integer> values = hist.getIntegerListIterator();
+		assertEquals(3, values.next().intValue());
+		assertEquals(3, values.next().intValue());
+		assertEquals(5, values.next().intValue());
+		assertEquals(5, values.next().intValue());
+		assertFalse(values.hasNext());
+
+		try {
+			hist.merge(null);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+	}
+
+	public void testFailRecord() {
+		StreamingHistogram hist = new StreamingHistogram(2);
+		try {
+			hist.record(-1);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+		try {
+			new StreamingHistogram(2, 100, false);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+	}
+
+	public void testEncodeDecodeMerge() {
+		StreamingHistogram first = new StreamingHistogram(6, 64, false);
+		first.recordAll(new int[] {0, 0, 3, 40, 41, 1000});
+		StreamingHistogram second = new StreamingHistogram(6, 64, false);
+		second.recordAll(new int[] {7, 7, 7, 20000});
+
+		ByteBuffer buffer = ByteBuffer.allocate(first.getMaxEncodedSize() + second.getMaxEncodedSize());
+		first.encodeInto(buffer);
+		second.encodeInto(buffer);
+		// empty buckets are run-length encoded, far below one varint per bucket
+		assertTrue(buffer.position() < 64);
+		buffer.flip();
+
+		StreamingHistogram decoded = StreamingHistogram.decodeFrom(buffer);
+		assertSameBars(first, decoded);
+		decoded.merge(StreamingHistogram.decodeFrom(buffer));
+		assertFalse(buffer.hasRemaining());
+
+		StreamingHistogram expected = new StreamingHistogram(6, 64, false);
+		expected.recordAll(new int[] {0, 0, 3, 40, 41, 1000, 7, 7, 7, 20000});
+		assertSameBars(expected, decoded);
+		assertEquals(expected.getTotalCount(), decoded.getTotalCount());
+		assertEquals(expected.getBucketWidth(), decoded.getBucketWidth());
+	}
+
+	public void testDecodeRejectsOtherData() {
+		try {
+			StreamingHistogram.decodeFrom(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5}));
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+	}
+
+	public void testRangeQueries() {
+		int[] data = new int[] {0, 3, 3, 7, 100, 250, 250, 1023};
+		StreamingHistogram exact = new StreamingHistogram(4, 1024, false);
+		exact.recordAll(data);
+		assertEquals(1, exact.getBucketWidth());
+		Histogram expected = new Histogram(data, 4);
+		for(int value = -1; value < 1030; value++) {
+			assertEquals(expected.rank(value), exact.rank(value));
+		}
+		assertEquals(expected.countBetween(3, 250), exact.countBetween(3, 250));
+		assertEquals(0.5, exact.cdf(99), 0);
+
+		// after collapsing, values are spread evenly over their bucket
+		StreamingHistogram hist = new StreamingHistogram(4, 16, false);
+		hist.recordAll(new int[] {0, 1, 2, 3, 60});
+		assertEquals(4, hist.getBucketWidth());
+		assertEquals(0, hist.rank(-5));
+		assertEquals(2, hist.rank(1));
+		assertEquals(4, hist.rank(3));
+		assertEquals(4, hist.countBetween(0, 59));
+		assertEquals(5, hist.countBetween(Integer.MIN_VALUE, Integer.MAX_VALUE));
+		hist.record(5);
+		assertEquals(5, hist.rank(7));
+		hist.reset();
+		assertEquals(0, hist.rank(100));
+		try {
+			hist.cdf(0);
+			fail();
+		} catch(IllegalStateException e) {
+			assertTrue(true);
+		}
+		try {
+			hist.countBetween(1, 0);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+	}
+}
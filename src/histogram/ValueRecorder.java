@@ -0,0 +1,8 @@
+package histogram;
+
+/**
+ * Anything values can be recorded into one at a time, e.g. by a parser or loader.
+ */
+public interface ValueRecorder {
+	void record(int value);
+}
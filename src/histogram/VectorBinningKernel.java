@@ -0,0 +1,77 @@
+package histogram;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD version of the BinningKernel loops, built on the incubating Vector API.
+ *
+ * Bar indices are computed for a whole IntVector of values at a time. Every
+ * lane then counts into its own copy of the count table, so the lanes of one
+ * vector never hit the same counter and the counters can be gathered,
+ * incremented and scattered back as a vector. The copies are added together
+ * at the end.
+ *
+ * Only BinningKernel touches this class, and only after checking that the
+ * jdk.incubator.vector module is present.
+ */
+final class VectorBinningKernel {
+
+	private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Long> LONG_SPECIES = LongVector.SPECIES_PREFERRED;
+	private static final int LANES = SPECIES.length();
+
+	private VectorBinningKernel() {
+	}
+
+	static void count(int[] values, int from, int to, int shift, long multiplier, int[] counts) {
+		int[] laneCounts = new int[counts.length * LANES];
+		int[] laneOffsets = new int[LANES];
+		for(int lane = 0; lane < LANES; lane++) {
+			laneOffsets[lane] = lane;
+		}
+		IntVector lanes = IntVector.fromArray(SPECIES, laneOffsets, 0);
+		IntVector ones = IntVector.broadcast(SPECIES, 1);
+		int[] slots = new int[LANES];
+
+		int i = from;
+		int upperBound = from + SPECIES.loopBound(to - from);
+		for(; i < upperBound; i += LANES) {
+			IntVector value = IntVector.fromArray(SPECIES, values, i);
+			IntVector bar = multiplier == 0 ? value.lanewise(VectorOperators.LSHR, shift)
+					: divide(value, shift, multiplier);
+			// slot of lane l for bar b is b * LANES + l
+			bar.lanewise(VectorOperators.LSHL, Integer.numberOfTrailingZeros(LANES)).add(lanes).intoArray(slots, 0);
+			IntVector.fromArray(SPECIES, laneCounts, 0, slots, 0).add(ones).intoArray(laneCounts, 0, slots, 0);
+		}
+		for(int bar = 0; bar < counts.length; bar++) {
+			int sum = 0;
+			for(int lane = 0; lane < LANES; lane++) {
+				sum += laneCounts[bar * LANES + lane];
+			}
+			counts[bar] += sum;
+		}
+		for(; i < to; i++) {
+			counts[BinningKernel.divide(values[i], shift, multiplier)]++;
+		}
+	}
+
+	// (value * multiplier) >>> shift needs 64 bits, so each half is widened to longs and back
+	private static IntVector divide(IntVector value, int shift, long multiplier) {
+		IntVector low = narrow(widenDivide(value, 0, shift, multiplier), 0);
+		IntVector high = narrow(widenDivide(value, 1, shift, multiplier), -1);
+		// the lanes each half does not fill are zero
+		return low.or(high);
+	}
+
+	private static LongVector widenDivide(IntVector value, int part, int shift, long multiplier) {
+		LongVector wide = (LongVector) value.convertShape(VectorOperators.I2L, LONG_SPECIES, part);
+		return wide.mul(multiplier).lanewise(VectorOperators.LSHR, shift);
+	}
+
+	private static IntVector narrow(LongVector quotient, int part) {
+		return (IntVector) quotient.convertShape(VectorOperators.L2I, SPECIES, part);
+	}
+}
@@ -0,0 +1,272 @@
+package histogram;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Histogram of the values recorded during the last window of time, e.g. the
+ * last 60 seconds.
+ *
+ * The window is split into equal slices kept in a ring, each with its own bar
+ * counts. New values go into the current slice and into a running total for
+ * the whole window. When time moves past a slice, the oldest slice is
+ * subtracted from the total and reused as the new current slice, so the
+ * window advances in O(bars) and memory stays fixed.
+ *
+ * Bars are equal width and cover 0 to highestTrackableValue, like a Histogram
+ * whose largest value is highestTrackableValue.
+ *
+ * Reading slides the window too, so reads and writes share one lock. A reader
+ * on another thread than the recorder, such as a HistogramIcon painting on the
+ * EDT, should read the bars from getSnapshot().
+ */
+public class WindowedHistogram implements HistogramView, ValueRecorder {
+
+	private final int numberBars;
+	private final int highestTrackableValue;
+	private final int barRange;
+	private final BinningKernel kernel;
+	private final long sliceNanos;
+	private final LongSupplier nanoClock;
+
+	private final int[][] slices;
+	private final int[] windowCounts;
+	private int currentSlice = 0;
+	private long currentSliceStart;
+	private long totalCount = 0;
+	private int maxBarCount = 0;
+	private boolean maxBarCountDirty = false;
+	private long version;
+	private HistogramStatistics statistics;
+
+	public WindowedHistogram(int numberBars, int highestTrackableValue, long window, TimeUnit unit, int sliceCount) {
+		this(numberBars, highestTrackableValue, window, unit, sliceCount, new LongSupplier() {
+			@Override
+			public long getAsLong() {
+				return System.nanoTime();
+			}
+		});
+	}
+
+	/**
+	 * Uses the given clock (in nanoseconds) instead of System.nanoTime().
+	 */
+	public WindowedHistogram(int numberBars, int highestTrackableValue, long window, TimeUnit unit,
+			int sliceCount, LongSupplier nanoClock) {
+		if(numberBars < 1) {
+			throw new IllegalArgumentException("Number of Bars is less than 1");
+		}
+		if(highestTrackableValue < 0) {
+			throw new IllegalArgumentException("highestTrackableValue is less than 0");
+		}
+		if(sliceCount < 1) {
+			throw new IllegalArgumentException("sliceCount is less than 1");
+		}
+		long windowNanos = unit.toNanos(window);
+		if(windowNanos < sliceCount) {
+			throw new IllegalArgumentException("window is shorter than one nanosecond per slice");
+		}
+		this.numberBars = numberBars;
+		this.highestTrackableValue = highestTrackableValue;
+		// add 1 to include starting 0
+		this.barRange = (highestTrackableValue / numberBars) + 1;
+		this.kernel = BinningKernel.forBarRange(barRange);
+		this.sliceNanos = windowNanos / sliceCount;
+		this.nanoClock = nanoClock;
+		this.slices = new int[sliceCount][numberBars];
+		this.windowCounts = new int[numberBars];
+		this.currentSliceStart = nanoClock.getAsLong();
+	}
+
+	public synchronized void record(int value) {
+		if(value < 0 || value > highestTrackableValue) {
+			throw new IllegalArgumentException("Invalid data: " + value);
+		}
+		advance();
+		int bar = kernel.barIndex(value);
+		slices[currentSlice][bar]++;
+		int count = ++windowCounts[bar];
+		if(count > maxBarCount) {
+			maxBarCount = count;
+		}
+		totalCount++;
+		version++;
+	}
+
+	public synchronized void recordAll(int[] values) {
+		if(values == null) {
+			throw new IllegalArgumentException("values is null");
+		}
+		for(int value : values) {
+			record(value);
+		}
+	}
+
+	// expire every slice that time has moved past
+	private synchronized void advance() {
+		long elapsedSlices = (nanoClock.getAsLong() - currentSliceStart) / sliceNanos;
+		if(elapsedSlices <= 0) {
+			return;
+		}
+		long expired = Math.min(elapsedSlices, slices.length);
+		long removed = 0;
+		for(long i = 0; i < expired; i++) {
+			currentSlice = (currentSlice + 1) % slices.length;
+			int[] slice = slices[currentSlice];
+			for(int bar = 0; bar < numberBars; bar++) {
+				windowCounts[bar] -= slice[bar];
+				removed += slice[bar];
+			}
+			Arrays.fill(slice, 0);
+		}
+		currentSliceStart += elapsedSlices * sliceNanos;
+		// an idle window keeps its version, so cached renders stay valid
+		if(removed > 0) {
+			totalCount -= removed;
+			maxBarCountDirty = true;
+			version++;
+		}
+	}
+
+	public int getNumberBars() {
+		return numberBars;
+	}
+
+	public synchronized int getBarCount(int index) {
+		advance();
+		return windowCounts[index];
+	}
+
+	public int getBarRangeMin(int index) {
+		if(index < 0 || index >= numberBars) {
+			throw new IndexOutOfBoundsException("Bar index " + index);
+		}
+		return index * barRange;
+	}
+
+	public int getBarRangeMax(int index) {
+		return getBarRangeMin(index) + barRange - 1;
+	}
+
+	public synchronized int getMaxBarCount() {
+		advance();
+		updateMaxBarCount();
+		return maxBarCount;
+	}
+
+	private void updateMaxBarCount() {
+		if(maxBarCountDirty) {
+			int maxCount = 0;
+			for(int count : windowCounts) {
+				maxCount = Math.max(maxCount, count);
+			}
+			maxBarCount = maxCount;
+			maxBarCountDirty = false;
+		}
+	}
+
+	public synchronized void forEachBar(IntBarConsumer consumer) {
+		advance();
+		for(int i = 0; i < numberBars; i++) {
+			consumer.accept(i, i * barRange, i * barRange + barRange - 1, windowCounts[i]);
+		}
+	}
+
+	public Iterator<Histogram.Bar> iterator() {
+		return new BarIterator(this);
+	}
+
+	// moves whenever values are recorded or old slices fall out of the window
+	public synchronized long getVersion() {
+		advance();
+		return version;
+	}
+
+	/**
+	 * Statistics interpolated from the bars of the current window, kept until the next change.
+	 */
+	public synchronized HistogramStatistics getStatistics() {
+		long currentVersion = getVersion();
+		if(statistics == null || statistics.getVersion() != currentVersion) {
+			statistics = HistogramStatistics.fromBars(getSnapshot());
+		}
+		return statistics;
+	}
+
+	/**
+	 * A copy of the bars of the current window, which later records and
+	 * expiring slices do not change. Costs O(bars).
+	 */
+	@Override
+	public synchronized HistogramView getSnapshot() {
+		advance();
+		updateMaxBarCount();
+		return new WindowSnapshot(barRange, Arrays.copyOf(windowCounts, numberBars), maxBarCount, version);
+	}
+
+	public synchronized long getTotalCount() {
+		advance();
+		return totalCount;
+	}
+
+	public long getWindowNanos() {
+		return sliceNanos * slices.length;
+	}
+
+	public int getSliceCount() {
+		return slices.length;
+	}
+
+	private static final class WindowSnapshot implements HistogramView {
+		private final int barRange;
+		private final int[] barCounts;
+		private final int maxBarCount;
+		private final long version;
+
+		WindowSnapshot(int barRange, int[] barCounts, int maxBarCount, long version) {
+			this.barRange = barRange;
+			this.barCounts = barCounts;
+			this.maxBarCount = maxBarCount;
+			this.version = version;
+		}
+
+		public int getNumberBars() {
+			return barCounts.length;
+		}
+
+		public int getBarCount(int index) {
+			return barCounts[index];
+		}
+
+		public int getBarRangeMin(int index) {
+			if(index < 0 || index >= barCounts.length) {
+				throw new IndexOutOfBoundsException("Bar index " + index);
+			}
+			return index * barRange;
+		}
+
+		public int getBarRangeMax(int index) {
+			return getBarRangeMin(index) + barRange - 1;
+		}
+
+		public int getMaxBarCount() {
+			return maxBarCount;
+		}
+
+		public void forEachBar(IntBarConsumer consumer) {
+			for(int i = 0; i < barCounts.length; i++) {
+				consumer.accept(i, i * barRange, i * barRange + barRange - 1, barCounts[i]);
+			}
+		}
+
+		public Iterator<Histogram.Bar> iterator() {
+			return new BarIterator(this);
+		}
+
+		public long getVersion() {
+			return version;
+		}
+	}
+}
@@ -0,0 +1,174 @@
+package histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit Test class for the WindowedHistogram class.
+ */
+public class WindowedHistogramTest extends TestCase {
+
+	private long now = 0;
+
+	private WindowedHistogram newHistogram(int numberBars, int highestTrackableValue) {
+		// 4 slices of 1 second each
+		return new WindowedHistogram(numberBars, highestTrackableValue, 4, TimeUnit.SECONDS, 4, new LongSupplier() {
+			@Override
+			public long getAsLong() {
+				return now;
+			}
+		});
+	}
+
+	public void testMatchesHistogramOverWindow() {
+		int[] data = new int[] {0, 5, 6, 7, 8, 14, 14};
+		WindowedHistogram windowed = newHistogram(5, 14);
+		windowed.recordAll(data);
+		Histogram expected = new Histogram(data, 5);
+		assertEquals(expected.getNumberBars(), windowed.getNumberBars());
+		for(int i = 0; i < expected.getNumberBars(); i++) {
+			assertEquals(expected.getBarRangeMin(i), windowed.getBarRangeMin(i));
+			assertEquals(expected.getBarRangeMax(i), windowed.getBarRangeMax(i));
+			assertEquals(expected.getBarCount(i), windowed.getBarCount(i));
+		}
+		assertEquals(expected.getMaxBarCount(), windowed.getMaxBarCount());
+	}
+
+	public void testOldSlicesExpire() {
+		WindowedHistogram hist = newHistogram(2, 9);
+		hist.record(1);
+		now = TimeUnit.SECONDS.toNanos(1);
+		hist.record(8);
+		hist.record(8);
+		now = TimeUnit.SECONDS.toNanos(3);
+		assertEquals(3, hist.getTotalCount());
+		assertEquals(1, hist.getBarCount(0));
+
+		// the first second falls out of the window
+		now = TimeUnit.SECONDS.toNanos(4);
+		assertEquals(0, hist.getBarCount(0));
+		assertEquals(2, hist.getBarCount(1));
+		assertEquals(2, hist.getMaxBarCount());
+
+		now = TimeUnit.SECONDS.toNanos(5);
+		assertEquals(0, hist.getTotalCount());
+		assertEquals(0, hist.getMaxBarCount());
+
+		// a long gap clears every slice
+		hist.record(3);
+		now = TimeUnit.SECONDS.toNanos(1000);
+		assertEquals(0, hist.getTotalCount());
+		hist.record(3);
+		assertEquals(1, hist.getBarCount(0));
+	}
+
+	public void testVersionMovesWhenWindowSlides() {
+		WindowedHistogram hist = newHistogram(2, 9);
+		long version = hist.getVersion();
+		assertEquals(version, hist.getVersion());
+		hist.record(4);
+		assertTrue(hist.getVersion() != version);
+		version = hist.getVersion();
+
+		// sliding past empty slices changes nothing
+		now = TimeUnit.SECONDS.toNanos(2);
+		assertEquals(version, hist.getVersion());
+
+		// the slice holding the value expires
+		now = TimeUnit.SECONDS.toNanos(4);
+		assertTrue(hist.getVersion() != version);
+		version = hist.getVersion();
+		now = TimeUnit.SECONDS.toNanos(100);
+		assertEquals(version, hist.getVersion());
+	}
+
+	public void testFailRecord() {
+		WindowedHistogram hist = newHistogram(2, 9);
+		try {
+			hist.record(10);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+		try {
+			hist.record(-1);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+		try {
+			new WindowedHistogram(2, 9, 1, TimeUnit.SECONDS, 0);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+	}
+
+	public void testSnapshotDoesNotChange() {
+		WindowedHistogram hist = newHistogram(2, 9);
+		hist.recordAll(new int[] {1, 2, 8});
+		HistogramView snapshot = hist.getSnapshot();
+		hist.record(3);
+		now = TimeUnit.SECONDS.toNanos(10);
+		assertEquals(0, hist.getBarCount(0));
+		assertEquals(2, snapshot.getBarCount(0));
+		assertEquals(1, snapshot.getBarCount(1));
+		assertEquals(2, snapshot.getMaxBarCount());
+		assertEquals(9, snapshot.getBarRangeMax(1));
+		assertTrue(snapshot.getVersion() < hist.getVersion());
+	}
+
+	public void testConcurrentRecordAndRead() throws InterruptedException {
+		// every read can slide the window, so readers race the recorder to expire slices
+		final AtomicLong clock = new AtomicLong();
+		final WindowedHistogram hist = new WindowedHistogram(16, 999, 4, TimeUnit.MILLISECONDS, 4,
+				new LongSupplier() {
+			@Override
+			public long getAsLong() {
+				return clock.addAndGet(1000);
+			}
+		});
+		final AtomicBoolean recording = new AtomicBoolean(true);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		Thread reader = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					while(recording.get()) {
+						HistogramView snapshot = hist.getSnapshot();
+						int max = 0;
+						for(int i = 0; i < snapshot.getNumberBars(); i++) {
+							assertTrue(snapshot.getBarCount(i) >= 0);
+							max = Math.max(max, snapshot.getBarCount(i));
+						}
+						assertEquals(snapshot.getMaxBarCount(), max);
+						assertTrue(hist.getTotalCount() >= 0);
+					}
+				} catch(Throwable e) {
+					failure.compareAndSet(null, e);
+				}
+			}
+		});
+		reader.start();
+		try {
+			for(int i = 0; i < 200000 && failure.get() == null; i++) {
+				hist.record(i % 1000);
+			}
+		} finally {
+			recording.set(false);
+			reader.join();
+		}
+		if(failure.get() != null) {
+			throw new AssertionError(failure.get());
+		}
+		// once the window has passed, subtracting a slice twice would leave counts behind
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		assertEquals(0, hist.getTotalCount());
+		assertEquals(0, hist.getMaxBarCount());
+	}
+}
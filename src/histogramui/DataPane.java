@@ -4,20 +4,25 @@ import java.awt.BorderLayout;
 import java.awt.Component;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
 import javax.swing.JLabel;
+import javax.swing.JList;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
+import javax.swing.SwingWorker;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
+import histogram.IntTextParser;
+
 /**
  * UI Panel showing current data used to create histogram, plus allows user to 
  * change and randomize the data.
@@ -26,6 +31,7 @@ public class DataPane extends JPanel {
 	private static final long serialVersionUID = 1L;
 	private static final int NUM_TEXT_LINES = 1;
 	private static final int NUM_TEXT_COLS = 30;
+	private static final int NUM_VISIBLE_ROWS = 8;
 
 	// For randomizing the data
 	private static final int MAX_NUM_VALUES = 200;
@@ -33,7 +39,9 @@ public class DataPane extends JPanel {
 
 	private ObservableHistogram histogram;
 	private int[] data = HistogramDisplayer.INITIAL_HISTOGRAM_DATA;
-	private JTextArea dataDisplay;
+	private JTextArea dataInput;
+	private SortedIntListModel sortedData = new SortedIntListModel();
+	private SwingWorker<int[], Void> sortWorker;
 
 	public DataPane(ObservableHistogram histogram) {
 		this.histogram = histogram;
@@ -42,7 +50,7 @@ public class DataPane extends JPanel {
 		setLayout(new BorderLayout());
 		add(makeDataLabel(), BorderLayout.NORTH);
 		add(makeDataDisplayBox(), BorderLayout.CENTER);
-		add(makeRowOfButtons(), BorderLayout.SOUTH);
+		add(makeInputBox(), BorderLayout.SOUTH);
 
 		updateDataDisplay();
 		registerForHistogramUpdates();
@@ -52,9 +60,21 @@ public class DataPane extends JPanel {
 		return new JLabel("Histogram Data:");
 	}
 	private Component makeDataDisplayBox() {
-		dataDisplay = new JTextArea(NUM_TEXT_LINES, NUM_TEXT_COLS);
-		dataDisplay.setLineWrap(true);
-		return dataDisplay;
+		// Only the visible rows are rendered. The prototype fixes the cell size
+		// so the list never measures every value.
+		JList<Integer> dataDisplay = new JList<Integer>(sortedData);
+		dataDisplay.setPrototypeCellValue(Integer.MIN_VALUE);
+		dataDisplay.setVisibleRowCount(NUM_VISIBLE_ROWS);
+		return new JScrollPane(dataDisplay);
+	}
+	private Component makeInputBox() {
+		JPanel inputBox = new JPanel();
+		inputBox.setLayout(new BorderLayout());
+		dataInput = new JTextArea(NUM_TEXT_LINES, NUM_TEXT_COLS);
+		dataInput.setLineWrap(true);
+		inputBox.add(dataInput, BorderLayout.CENTER);
+		inputBox.add(makeRowOfButtons(), BorderLayout.SOUTH);
+		return inputBox;
 	}
 	private Component makeRowOfButtons() {
 		JPanel buttonRow = new JPanel();
@@ -73,7 +93,7 @@ public class DataPane extends JPanel {
 		btn.addActionListener(new ActionListener() {
 			@Override
 			public void actionPerformed(ActionEvent event) {
-				setDataFromInput(dataDisplay.getText());
+				setDataFromInput(dataInput.getText());
 			}
 		});
 		return btn;
@@ -105,15 +125,36 @@ public class DataPane extends JPanel {
 
 	private void updateDataDisplay() {
 		// Sort the values just so it's easier for user to read the UI.
-		int[] sortable = Arrays.copyOf(data, data.length);
-		Arrays.sort(sortable);
-		String displayString = "";
-		for (int value : sortable) {
-			displayString += value + ", ";
+		// Sorting a large data set takes a while, so do it off the EDT.
+		if(sortWorker != null) {
+			sortWorker.cancel(false);
 		}
-		
-		dataDisplay.setText(displayString);
-	}						
+		final int[] unsorted = data;
+		sortWorker = new SwingWorker<int[], Void>() {
+			@Override
+			protected int[] doInBackground() {
+				int[] sortable = Arrays.copyOf(unsorted, unsorted.length);
+				Arrays.parallelSort(sortable);
+				return sortable;
+			}
+
+			@Override
+			protected void done() {
+				// a newer sort replaced this one
+				if(isCancelled() || sortWorker != this) {
+					return;
+				}
+				try {
+					sortedData.setValues(get());
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} catch(ExecutionException e) {
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+		};
+		sortWorker.execute();
+	}
 
 	private void setDataFromInput(String newDataString) {
 		try {
@@ -121,24 +162,13 @@ public class DataPane extends JPanel {
 			histogram.setData(data);
 			updateDataDisplay();
 		} catch (NumberFormatException exception) {
-			JOptionPane.showMessageDialog(this, "Data format error. Must be comma separated integers.");
+			JOptionPane.showMessageDialog(this, "Data format error. Must be comma separated integers.\n"
+					+ exception.getMessage());
 		}
 	}
 	
 	private int[] makeIntArrayFromCSVString(String text) throws NumberFormatException{
-		ArrayList<Integer> values = new ArrayList<Integer>();
-		String[] split = text.split(",");			
-		for (String str : split) {
-			if (str.trim().length() > 0) {
-				values.add(Integer.parseInt(str.trim()));
-			}
-		}
-		
-		int[] returnArray = new int[values.size()];
-		for (int i = 0; i < values.size(); i++) {
-			returnArray[i] = values.get(i).intValue();
-		}
-		return returnArray;		
+		return IntTextParser.parseToArray(text);
 	}
 
 	private void randomizeHistogramData(final ObservableHistogram histogram) {
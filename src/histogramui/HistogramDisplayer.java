@@ -30,6 +30,8 @@ public class HistogramDisplayer {
 	
 	public HistogramDisplayer() {
 		ObservableHistogram histogram = new ObservableHistogram(INITIAL_HISTOGRAM_DATA, DEFAULT_NUMBER_BARS);
+		// Listeners below all touch Swing, so notify them on the EDT, at most once a frame.
+		histogram.setNotificationMode(ObservableHistogram.NotificationMode.COALESCED);
 
 		JFrame frame = new JFrame();
 		frame.setTitle("Histogram");
@@ -1,8 +1,13 @@
 package histogramui;
 
-import java.util.ArrayList;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.swing.Timer;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
@@ -10,38 +15,133 @@ import histogram.Histogram;
 
 
 /**
- * Decorate the Histogram class with observable functionality for 
+ * Decorate the Histogram class with observable functionality for
  * notification when the histogram's data changes.
  */
 public class ObservableHistogram extends Histogram{
-	private List<ChangeListener> listeners = new ArrayList<ChangeListener>();
+	// roughly one notification per frame at 60 Hz
+	private static final int FRAME_DELAY_MILLIS = 16;
+
+	/**
+	 * How listeners learn about changes.
+	 */
+	public enum NotificationMode {
+		/** Listeners run on the changing thread after every change. */
+		IMMEDIATE,
+		/** Changes within a frame are coalesced into one notification on the EDT. */
+		COALESCED,
+		/** Listeners only run when the producer calls fireChange(). */
+		MANUAL
+	}
+
+	private final List<ChangeListener> listeners = new CopyOnWriteArrayList<ChangeListener>();
+	private volatile NotificationMode notificationMode = NotificationMode.IMMEDIATE;
+	private final AtomicBoolean notificationPending = new AtomicBoolean();
+	private final Timer frameTimer;
 
 	public ObservableHistogram(int[] data, int numBars) {
 		super(data, numBars);
+		frameTimer = new Timer(FRAME_DELAY_MILLIS, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent event) {
+				// clear first: a change made while listeners run schedules another frame
+				notificationPending.set(false);
+				notifyListeners();
+			}
+		});
+		frameTimer.setRepeats(false);
 	}
-	
+
 	@Override
 	public void setData(int[] data) {
 		super.setData(data);
-		notifyListeners();
+		changed();
+	}
+
+	@Override
+	public void update(int[] data, int numBars) {
+		super.update(data, numBars);
+		changed();
+	}
+
+	@Override
+	public void setDataParallel(int[] data, ForkJoinPool pool) {
+		super.setDataParallel(data, pool);
+		changed();
+	}
+
+	@Override
+	public void addValues(int[] values) {
+		super.addValues(values);
+		changed();
+	}
+
+	@Override
+	public void removeValues(int[] values) {
+		super.removeValues(values);
+		changed();
+	}
+
+	@Override
+	public void merge(Histogram other) {
+		super.merge(other);
+		changed();
 	}
-	
+
 	@Override
 	public void setNumberBars(int numBars) {
 		super.setNumberBars(numBars);
-		notifyListeners();
+		changed();
+	}
+
+	public void setNotificationMode(NotificationMode notificationMode) {
+		if(notificationMode == null) {
+			throw new IllegalArgumentException("notificationMode is null");
+		}
+		this.notificationMode = notificationMode;
 	}
-	
-	
+
+	public NotificationMode getNotificationMode() {
+		return notificationMode;
+	}
+
+
 	// Observer Functions
 	public void addChangeListener(ChangeListener listener) {
 		listeners.add(listener);
 	}
-	
-	private void notifyListeners() {
+
+	public void removeChangeListener(ChangeListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Notifies listeners now, on the calling thread, whatever the notification mode.
+	 */
+	public void fireChange() {
+		notifyListeners();
+	}
+
+	private void changed() {
+		// listeners is still null while the Histogram constructor runs
 		if(listeners == null) {
 			return;
 		}
+		switch(notificationMode) {
+		case IMMEDIATE:
+			notifyListeners();
+			break;
+		case COALESCED:
+			if(notificationPending.compareAndSet(false, true)) {
+				frameTimer.start();
+			}
+			break;
+		case MANUAL:
+			break;
+		}
+	}
+
+	private void notifyListeners() {
 		ChangeEvent event = new ChangeEvent(this);
 		for(ChangeListener listener : listeners) {
 			listener.stateChanged(event);
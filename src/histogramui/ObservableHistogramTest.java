@@ -0,0 +1,79 @@
+package histogramui;
+
+import java.awt.EventQueue;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit Test class for the ObservableHistogram class.
+ */
+public class ObservableHistogramTest extends TestCase {
+
+	private static final class CountingListener implements ChangeListener {
+		final AtomicInteger calls = new AtomicInteger();
+		final AtomicInteger callsOffEdt = new AtomicInteger();
+
+		@Override
+		public void stateChanged(ChangeEvent event) {
+			calls.incrementAndGet();
+			if(!SwingUtilities.isEventDispatchThread()) {
+				callsOffEdt.incrementAndGet();
+			}
+		}
+	}
+
+	public void testImmediate() {
+		ObservableHistogram histogram = new ObservableHistogram(new int[] {1, 2, 3}, 2);
+		CountingListener listener = new CountingListener();
+		histogram.addChangeListener(listener);
+		histogram.setNumberBars(3);
+		histogram.setData(new int[] {4});
+		assertEquals(2, listener.calls.get());
+
+		histogram.removeChangeListener(listener);
+		histogram.setNumberBars(4);
+		assertEquals(2, listener.calls.get());
+	}
+
+	public void testCoalescedOnEdt() throws InterruptedException, InvocationTargetException {
+		ObservableHistogram histogram = new ObservableHistogram(new int[] {1, 2, 3}, 2);
+		histogram.setNotificationMode(ObservableHistogram.NotificationMode.COALESCED);
+		CountingListener listener = new CountingListener();
+		histogram.addChangeListener(listener);
+		for(int i = 0; i < 1000; i++) {
+			histogram.setNumberBars(i % 10 + 1);
+		}
+		assertEquals(0, listener.calls.get());
+
+		// the notification is delivered by a Swing timer one frame later
+		for(int wait = 0; wait < 250 && listener.calls.get() == 0; wait++) {
+			Thread.sleep(20);
+		}
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+			}
+		});
+		assertTrue(listener.calls.get() >= 1);
+		assertTrue(listener.calls.get() < 1000);
+		assertEquals(0, listener.callsOffEdt.get());
+	}
+
+	public void testManual() {
+		ObservableHistogram histogram = new ObservableHistogram(new int[] {1, 2, 3}, 2);
+		histogram.setNotificationMode(ObservableHistogram.NotificationMode.MANUAL);
+		CountingListener listener = new CountingListener();
+		histogram.addChangeListener(listener);
+		histogram.setData(new int[] {5, 6});
+		histogram.setNumberBars(1);
+		assertEquals(0, listener.calls.get());
+		histogram.fireChange();
+		assertEquals(1, listener.calls.get());
+	}
+}
@@ -0,0 +1,40 @@
+package histogramui;
+
+import javax.swing.AbstractListModel;
+
+/**
+ * List model over a sorted primitive array. Values are only boxed when a row
+ * is asked for, so a JList shows millions of values without copying them.
+ */
+class SortedIntListModel extends AbstractListModel<Integer> {
+	private static final long serialVersionUID = 1L;
+
+	private int[] values = new int[0];
+
+	/**
+	 * Replaces the values shown. The array must already be sorted and is not copied.
+	 */
+	public void setValues(int[] sortedValues) {
+		if(sortedValues == null) {
+			throw new IllegalArgumentException("sortedValues is null");
+		}
+		int oldSize = values.length;
+		values = sortedValues;
+		if(oldSize > 0) {
+			fireIntervalRemoved(this, 0, oldSize - 1);
+		}
+		if(values.length > 0) {
+			fireIntervalAdded(this, 0, values.length - 1);
+		}
+	}
+
+	@Override
+	public int getSize() {
+		return values.length;
+	}
+
+	@Override
+	public Integer getElementAt(int index) {
+		return values[index];
+	}
+}
@@ -0,0 +1,46 @@
+package histogramui;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit Test class for the SortedIntListModel class.
+ */
+public class SortedIntListModelTest extends TestCase {
+
+	public void testSetValues() {
+		SortedIntListModel model = new SortedIntListModel();
+		assertEquals(0, model.getSize());
+		final int[] lastAdded = new int[] {-1, -1};
+		model.addListDataListener(new ListDataListener() {
+			@Override
+			public void intervalAdded(ListDataEvent e) {
+				lastAdded[0] = e.getIndex0();
+				lastAdded[1] = e.getIndex1();
+			}
+			@Override
+			public void intervalRemoved(ListDataEvent e) {
+			}
+			@Override
+			public void contentsChanged(ListDataEvent e) {
+			}
+		});
+
+		model.setValues(new int[] {1, 2, 2, 7});
+		assertEquals(4, model.getSize());
+		assertEquals(7, model.getElementAt(3).intValue());
+		assertEquals(0, lastAdded[0]);
+		assertEquals(3, lastAdded[1]);
+
+		model.setValues(new int[0]);
+		assertEquals(0, model.getSize());
+		try {
+			model.setValues(null);
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(true);
+		}
+	}
+}